@@ -0,0 +1,23 @@
+package oger.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 基准测试入口
+ * 参数与 JMH 命令行相同(如 -f 1 -wi 2 TableBody)，默认加上 GC profiler，结果中包含每次操作的分配字节数(gc.alloc.rate.norm)和 GC 次数
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,182 @@
+package oger.benchmark;
+
+import oger.util.ExcelExportUtil;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 按字段类型写单元格的基准
+ * 每种类型一个单字段的类，getter 返回声明类型，走与实体类相同的转换器；结果为每个单元格的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CellValueBenchmark {
+
+    private static final int ROWS = 10000;
+    private static final String[] FIELD_NAMES = {"value"};
+
+    @Param({"STRING", "INTEGER", "LONG", "DOUBLE", "BIG_DECIMAL", "BOOLEAN", "DATE", "LOCAL_DATE_TIME"})
+    private String type;
+
+    private List<Object> rows;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rows = new ArrayList<>(ROWS);
+        IntFunction<Object> factory;
+        switch (type) {
+            case "STRING":
+                factory = i -> new StringRow("学生" + i);
+                break;
+            case "INTEGER":
+                factory = IntegerRow::new;
+                break;
+            case "LONG":
+                factory = i -> new LongRow(1000000000000L + i);
+                break;
+            case "DOUBLE":
+                factory = i -> new DoubleRow(i / 7.0);
+                break;
+            case "BIG_DECIMAL":
+                factory = i -> new BigDecimalRow(BigDecimal.valueOf(i, 2));
+                break;
+            case "BOOLEAN":
+                factory = i -> new BooleanRow(i % 2 == 0);
+                break;
+            case "DATE":
+                factory = i -> new DateRow(new Date(631152000000L + i * 3600000L));
+                break;
+            case "LOCAL_DATE_TIME":
+                factory = i -> new LocalDateTimeRow(LocalDateTime.of(2020, 1, 1, 0, 0).plusHours(i));
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(factory.apply(i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int setCellValue() {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+        try {
+            Sheet sheet = workbook.createSheet("数据");
+            return ExcelExportUtil.createTableBody(0, FIELD_NAMES, rows, sheet, workbook);
+        } finally {
+            ExcelExportUtil.closeWorkbook(workbook);
+        }
+    }
+
+    public static class StringRow {
+        private final String value;
+
+        StringRow(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    public static class IntegerRow {
+        private final Integer value;
+
+        IntegerRow(Integer value) {
+            this.value = value;
+        }
+
+        public Integer getValue() {
+            return value;
+        }
+    }
+
+    public static class LongRow {
+        private final Long value;
+
+        LongRow(Long value) {
+            this.value = value;
+        }
+
+        public Long getValue() {
+            return value;
+        }
+    }
+
+    public static class DoubleRow {
+        private final Double value;
+
+        DoubleRow(Double value) {
+            this.value = value;
+        }
+
+        public Double getValue() {
+            return value;
+        }
+    }
+
+    public static class BigDecimalRow {
+        private final BigDecimal value;
+
+        BigDecimalRow(BigDecimal value) {
+            this.value = value;
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+    }
+
+    public static class BooleanRow {
+        private final Boolean value;
+
+        BooleanRow(Boolean value) {
+            this.value = value;
+        }
+
+        public Boolean getValue() {
+            return value;
+        }
+    }
+
+    public static class DateRow {
+        private final Date value;
+
+        DateRow(Date value) {
+            this.value = value;
+        }
+
+        public Date getValue() {
+            return value;
+        }
+    }
+
+    public static class LocalDateTimeRow {
+        private final LocalDateTime value;
+
+        LocalDateTimeRow(LocalDateTime value) {
+            this.value = value;
+        }
+
+        public LocalDateTime getValue() {
+            return value;
+        }
+    }
+}
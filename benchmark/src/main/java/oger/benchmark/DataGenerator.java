@@ -0,0 +1,182 @@
+package oger.benchmark;
+
+import oger.entity.Student;
+import oger.entity.StudentInfo;
+import oger.entity.Teacher;
+
+import java.util.*;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 基准测试数据生成
+ * 固定随机种子，每次运行生成相同的数据；姓名为中文，长度不一，与实际导出的列宽计算、字符串写入开销接近
+ */
+public class DataGenerator {
+
+    private static final String[] SURNAMES = {"张", "李", "王", "赵", "刘", "陈", "杨", "黄", "周", "吴", "欧阳", "司马"};
+    private static final String[] GIVEN_NAMES = {"伟", "芳", "娜", "秀英", "敏", "静", "丽", "强", "磊", "军", "洋", "勇", "艳", "杰", "涛"};
+    private static final String[] SUBJECTS = {"语文", "数学", "英语", "物理", "化学", "生物", "历史", "地理", "政治", "音乐", "体育"};
+    private static final long SEED = 42L;
+    private static final long BIRTHDAY_FROM = 631152000000L;  // 1990-01-01
+    private static final long BIRTHDAY_RANGE = 20L * 365 * 24 * 3600 * 1000;
+
+    /**
+     * 学生：id、姓名、生日、语文成绩、数学成绩都有值
+     *
+     * @param count
+     * @return
+     */
+    public static List<Student> students(int count) {
+        Random random = new Random(SEED);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(new Student(i + 1, name(random), new Date(BIRTHDAY_FROM + (long) (random.nextDouble() * BIRTHDAY_RANGE)),
+                    random.nextInt(101), random.nextInt(101)));
+        }
+        return students;
+    }
+
+    /**
+     * 教师
+     *
+     * @param count
+     * @return
+     */
+    public static List<Teacher> teachers(int count) {
+        Random random = new Random(SEED);
+        List<Teacher> teachers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            teachers.add(new Teacher(i + 1, name(random), SUBJECTS[random.nextInt(SUBJECTS.length)]));
+        }
+        return teachers;
+    }
+
+    /**
+     * 含成绩列表的学生信息，用于复杂对象表格
+     *
+     * @param scoreCount 成绩列表长度
+     * @return
+     */
+    public static StudentInfo studentInfo(int scoreCount) {
+        List<Student> scores = students(scoreCount);
+        StudentInfo studentInfo = new StudentInfo();
+        studentInfo.setClasses("奥数班");
+        studentInfo.setScores(scores);
+        int totalChineseScore = scores.stream().mapToInt(Student::getChineseScore).sum();
+        int totalMathScore = scores.stream().mapToInt(Student::getMathScore).sum();
+        studentInfo.setTotalChineseScore(totalChineseScore);
+        studentInfo.setTotalMathScore(totalMathScore);
+        studentInfo.setTotalScore(totalChineseScore + totalMathScore);
+        return studentInfo;
+    }
+
+    /**
+     * 与 StudentController#getStudents2 相同结构的复杂对象表格定义
+     *
+     * @return
+     */
+    public static List<Map<String, Object>> studentInfoCells() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("班级", 1);
+        map.put("classes", 2);
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("序号", 1);
+        map.put("成绩", 2);
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("序号", 1);
+        map.put("姓名", 1);
+        map.put("语文成绩", 1);
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("scores", Arrays.asList("id", "name", "chineseScore"));
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("合计：", 2);
+        map.put("totalChineseScore", 1);
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("序号", 1);
+        map.put("成绩", 2);
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("序号", 1);
+        map.put("姓名", 1);
+        map.put("数学成绩", 1);
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("scores", Arrays.asList("id", "name", "mathScore"));
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("合计：", 2);
+        map.put("totalMathScore", 1);
+        list.add(map);
+
+        map = new LinkedHashMap<>();
+        map.put("总计：", 2);
+        map.put("totalScore", 1);
+        list.add(map);
+        return list;
+    }
+
+    /**
+     * 二级表头：每组5列，每隔3组有一组只有一列(纵向合并)
+     *
+     * @param cols 列数
+     * @return
+     */
+    public static Map<String, Map<String, String>> mergeHeadMap(int cols) {
+        Map<String, Map<String, String>> mergeHeadMap = new LinkedHashMap<>();
+        int col = 0;
+        for (int group = 0; col < cols; group++) {
+            int size = Math.min(group % 3 == 2 ? 1 : 5, cols - col);
+            Map<String, String> headMap = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++, col++) {
+                headMap.put("f" + col, "列" + col);
+            }
+            mergeHeadMap.put("分组" + group, headMap);
+        }
+        return mergeHeadMap;
+    }
+
+    /**
+     * 三级表头：第一列纵向合并三行，其余每10列一个分组、每5列一个小组
+     *
+     * @param cols 列数
+     * @return
+     */
+    public static List<Map<String, Object>> mergeHeads(int cols) {
+        Map<String, Object> row1 = new LinkedHashMap<>();
+        Map<String, Object> row2 = new LinkedHashMap<>();
+        Map<String, Object> row3 = new LinkedHashMap<>();
+        row1.put("ID", 1);
+        row2.put("ID", 1);
+        row3.put("id", "ID");
+        for (int col = 1; col < cols; col++) {
+            row3.put("f" + col, "列" + col);
+        }
+        for (int col = 1; col < cols; col += 10) {
+            row1.put("分组" + col / 10, Math.min(10, cols - col));
+        }
+        for (int col = 1; col < cols; col += 5) {
+            row2.put("小组" + col / 5, Math.min(5, cols - col));
+        }
+        return Arrays.asList(row1, row2, row3);
+    }
+
+    private static String name(Random random) {
+        String name = SURNAMES[random.nextInt(SURNAMES.length)] + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+        return random.nextBoolean() ? name : name + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+    }
+}
@@ -0,0 +1,89 @@
+package oger.benchmark;
+
+import oger.entity.Student;
+import oger.entity.Teacher;
+import oger.util.ExcelExportUtil;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: exportExcel 序列化基准：只计 workbook.write 及关闭的耗时，workbook 在每次调用前填充好
+ * xls 为 HSSF 整体序列化，xlsx 为 SXSSF 把已刷盘的行打包压缩
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportBenchmark {
+
+    @Param({"xls", "xlsx"})
+    private String format;
+
+    @Param({"10000", "60000"})
+    private int rows;
+
+    private List<Student> students;
+    private List<Teacher> teachers;
+    private Workbook workbook;
+
+    @Setup(Level.Trial)
+    public void setupData() {
+        students = DataGenerator.students(rows);
+        teachers = DataGenerator.teachers(rows / 10);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupWorkbook() {
+        workbook = "xls".equals(format) ? new HSSFWorkbook() : ExcelExportUtil.createStreamingWorkbook();
+        Map<String, String> headMap = new LinkedHashMap<>();
+        headMap.put("id", "ID");
+        headMap.put("name", "姓名");
+        headMap.put("birthday", "生日");
+        headMap.put("chineseScore", "语文成绩");
+        headMap.put("mathScore", "数学成绩");
+        Sheet sheet = workbook.createSheet("学生列表");
+        ExcelExportUtil.createTable(0, "学生列表", headMap, students, sheet, workbook);
+
+        headMap = new LinkedHashMap<>();
+        headMap.put("name", "姓名");
+        headMap.put("subject", "科目");
+        sheet = workbook.createSheet("教师列表");
+        ExcelExportUtil.createTable(0, "教师列表", headMap, teachers, sheet, workbook);
+    }
+
+    @Benchmark
+    public long exportExcel() {
+        CountingOutputStream out = new CountingOutputStream();
+        ExcelExportUtil.exportExcel(workbook, out);
+        return out.count;
+    }
+
+    /**
+     * 只计数不保存，排除内存拷贝和磁盘写入
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package oger.benchmark;
+
+import oger.util.ExcelExportUtil;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 宽表头基准：二级、多级表头的布局计算、合并单元格和表头样式，表体为空
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeadTableBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int cols;
+
+    private Map<String, Map<String, String>> mergeHeadMap;
+    private List<Map<String, Object>> mergeHeads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mergeHeadMap = DataGenerator.mergeHeadMap(cols);
+        mergeHeads = DataGenerator.mergeHeads(cols);
+    }
+
+    @Benchmark
+    public int create2LevelHeadTable() {
+        SXSSFWorkbook workbook = ExcelExportUtil.createStreamingWorkbook();
+        try {
+            Sheet sheet = workbook.createSheet("二级表头");
+            return ExcelExportUtil.create2LevelHeadTable(0, mergeHeadMap, Collections.emptyList(), sheet, workbook);
+        } finally {
+            ExcelExportUtil.closeWorkbook(workbook);
+        }
+    }
+
+    @Benchmark
+    public int createMultiLevelHeadTable() {
+        SXSSFWorkbook workbook = ExcelExportUtil.createStreamingWorkbook();
+        try {
+            Sheet sheet = workbook.createSheet("多级表头");
+            return ExcelExportUtil.createMultiLevelHeadTable(0, mergeHeads, Collections.emptyList(), sheet, workbook);
+        } finally {
+            ExcelExportUtil.closeWorkbook(workbook);
+        }
+    }
+}
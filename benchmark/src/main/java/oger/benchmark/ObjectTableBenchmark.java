@@ -0,0 +1,48 @@
+package oger.benchmark;
+
+import oger.entity.StudentInfo;
+import oger.util.ExcelExportUtil;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 复杂对象表格基准：成绩列表在表格中出现两次，列表越长合并区域和行数越多
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectTableBenchmark {
+
+    @Param({"1000", "10000", "30000"})
+    private int scores;
+
+    private List<Map<String, Object>> names;
+    private StudentInfo studentInfo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        names = DataGenerator.studentInfoCells();
+        studentInfo = DataGenerator.studentInfo(scores);
+    }
+
+    @Benchmark
+    public int createObjectTable() {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+        try {
+            Sheet sheet = workbook.createSheet("成绩单");
+            return ExcelExportUtil.createObjectTable(0, names, studentInfo, sheet, workbook);
+        } finally {
+            ExcelExportUtil.closeWorkbook(workbook);
+        }
+    }
+}
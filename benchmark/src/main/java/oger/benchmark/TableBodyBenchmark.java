@@ -0,0 +1,47 @@
+package oger.benchmark;
+
+import oger.entity.Student;
+import oger.util.ExcelExportUtil;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: createTableBody 基准：流式xlsx，含取值、转换、写单元格、列宽统计和行刷盘
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableBodyBenchmark {
+
+    private static final String[] FIELD_NAMES = {"id", "name", "birthday", "chineseScore", "mathScore"};
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private List<Student> students;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        students = DataGenerator.students(rows);
+    }
+
+    @Benchmark
+    public int createTableBody() {
+        SXSSFWorkbook workbook = ExcelExportUtil.createStreamingWorkbook();
+        try {
+            Sheet sheet = workbook.createSheet("学生列表");
+            return ExcelExportUtil.createTableBody(0, FIELD_NAMES, students, sheet, workbook);
+        } finally {
+            ExcelExportUtil.closeWorkbook(workbook);
+        }
+    }
+}
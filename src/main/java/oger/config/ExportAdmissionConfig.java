@@ -0,0 +1,33 @@
+package oger.config;
+
+import oger.service.ExportAdmissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 按配置的路径对导出接口做准入控制
+ * 不在请求中生成workbook的接口不预留：异步导出只提交任务(由任务线程预留)，缓存导出命中时不生成(未命中时由 ExportCacheService 预留)，CSV导出不创建workbook
+ */
+@Configuration
+public class ExportAdmissionConfig implements WebMvcConfigurer {
+
+    @Value("${excel.export.admission.path-patterns:/**/export*,/**/stream*}")
+    private String[] pathPatterns;
+
+    @Value("${excel.export.admission.exclude-path-patterns:/**/async/**,/**/cached/**,/**/*Csv}")
+    private String[] excludePathPatterns;
+
+    @Autowired
+    private ExportAdmissionService exportAdmissionService;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ExportAdmissionInterceptor(exportAdmissionService)).addPathPatterns(pathPatterns)
+                .excludePathPatterns(excludePathPatterns);
+    }
+}
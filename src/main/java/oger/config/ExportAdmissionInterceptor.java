@@ -0,0 +1,34 @@
+package oger.config;
+
+import oger.service.ExportAdmissionService;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出接口的准入控制
+ * 进入导出接口前按默认大小预留内存，预算不足时排队或返回 503，请求结束后归还；
+ * 边生成边输出的接口在首次分派后继续持有预留，生成和输出完成、异步分派结束时才归还
+ */
+public class ExportAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private final ExportAdmissionService admission;
+
+    public ExportAdmissionInterceptor(ExportAdmissionService admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        admission.acquireForRequest(request);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        admission.releaseForRequest(request);
+    }
+}
@@ -0,0 +1,34 @@
+package oger.config;
+
+import oger.util.ExportExecutors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 按配置设置导出线程池的大小
+ */
+@Configuration
+public class ExportExecutorConfig {
+
+    @Value("${excel.export.stream.pool-size:4}")
+    private int streamPoolSize;
+
+    @Value("${excel.export.stream.queue-capacity:16}")
+    private int streamQueueCapacity;
+
+    @Value("${excel.export.parallel.pool-size:0}")
+    private int parallelPoolSize;
+
+    @Value("${excel.export.parallel.queue-capacity:64}")
+    private int parallelQueueCapacity;
+
+    @PostConstruct
+    public void init() {
+        ExportExecutors.configureStream(streamPoolSize, streamQueueCapacity);
+        ExportExecutors.configureParallel(parallelPoolSize, parallelQueueCapacity);
+    }
+}
@@ -0,0 +1,24 @@
+package oger.controller;
+
+import oger.util.ExportRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出被拒绝时返回 503 和 Retry-After
+ */
+@RestControllerAdvice
+public class ExportExceptionHandler {
+
+    @ExceptionHandler(ExportRejectedException.class)
+    public ResponseEntity<String> handleExportRejected(ExportRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,54 @@
+package oger.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import oger.entity.ExportJob;
+import oger.service.ExportJobService;
+import oger.util.ExcelExportUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description:
+ */
+@Api(tags = {"异步导出控制器"})
+@RestController
+@RequestMapping("/export/jobs")
+public class ExportJobController {
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @GetMapping("/{id}")
+    @ApiOperation(value = "查询异步导出任务状态")
+    public ExportJob getJob(@PathVariable String id) {
+        return findJob(id);
+    }
+
+    @GetMapping("/{id}/file")
+    @ApiOperation(value = "下载异步导出文件")
+    public void download(@PathVariable String id, HttpServletResponse response) {
+        ExportJob job = findJob(id);
+        if (job.getStatus() != ExportJob.Status.SUCCESS) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "导出任务未完成：" + job.getStatus());
+        }
+        ExcelExportUtil.exportFile(job.getFileName(), job.getFile(), response);
+    }
+
+    private ExportJob findJob(String id) {
+        ExportJob job = exportJobService.getJob(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "导出任务不存在或已过期");
+        }
+        return job;
+    }
+}
@@ -2,20 +2,44 @@ package oger.controller;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import oger.entity.ExportJob;
 import oger.entity.Student;
 import oger.entity.StudentInfo;
 import oger.entity.Teacher;
+import oger.service.ExportCacheService;
+import oger.service.ExportJobService;
+import oger.util.CsvExportUtil;
+import oger.util.CsvFormat;
 import oger.util.ExcelExportUtil;
+import oger.util.ExcelImportUtil;
+import oger.util.ExcelLayout;
+import oger.util.ExcelTemplate;
+import oger.util.ExportProfile;
+import oger.util.RowSources;
+import oger.util.WorkbookContext;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * @Auther: Oger
@@ -27,6 +51,12 @@ import java.util.*;
 @RequestMapping("/student")
 public class StudentController {
 
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private ExportCacheService exportCacheService;
+
     /**
      * 单sheet单表模式，调用一个方法即可实现导出
      */
@@ -42,32 +72,145 @@ public class StudentController {
     }
 
     /**
-     * 创建多个sheet 导出
+     * 带缓存的导出：相同参数和数据版本只生成一次，客户端再次请求时带 If-None-Match 返回 304
      */
-    @GetMapping("/exportStudentsAndTeachers")
-    @ApiOperation(value = "多sheet导出")
+    @GetMapping("/cached/exportStudents")
+    @ApiOperation(value = "带缓存的导出")
     @ResponseBody
-    public void exportStudentsAndTeachers(HttpServletResponse response) {
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        String fileName = "学生和老师列表";
+    public void cachedExportStudents(HttpServletRequest request, HttpServletResponse response) {
+        String fileName = "学生列表";
+        List<Student> students = getStudents();
+        // 实际项目中可用表的最大更新时间或版本号，不必加载数据
+        int dataVersion = students.hashCode();
+        exportCacheService.export("exportStudents", null, dataVersion, fileName, HSSFWorkbook::new, workbook -> {
+            Map<String, String> headMap = new LinkedHashMap<>();
+            headMap.put("name", "姓名");
+            headMap.put("birthday", "生日");
+            Sheet sheet = workbook.createSheet(fileName);
+            ExcelExportUtil.createTable(0, headMap, students, sheet, workbook);
+        }, request, response);
+    }
 
+    /**
+     * 按实体类的 @ExcelColumn 注解导出：表头、顺序、格式取自注解，编译时生成的 StudentRowWriter 直接调用 getter
+     */
+    @GetMapping("/exportStudentsAnnotated")
+    @ApiOperation(value = "注解方式导出")
+    @ResponseBody
+    public void exportStudentsAnnotated(HttpServletResponse response) {
+        String fileName = "学生列表";
+        ExcelExportUtil.exportExcel(fileName, Student.class, getStudents(), response);
+    }
+
+    /**
+     * 流式导出xlsx，内存中只保留指定行数，适用于大数据量导出
+     * profile 选择压缩配置：lan 快速压缩省CPU，wan 最高压缩省流量，large 临时文件也压缩
+     */
+    @GetMapping("/exportStudentsXlsx")
+    @ApiOperation(value = "流式xlsx导出")
+    @ResponseBody
+    public void exportStudentsXlsx(@RequestParam(defaultValue = "default") String profile, HttpServletResponse response) {
+        String fileName = "学生列表";
         Map<String, String> headMap = new LinkedHashMap<>();
         headMap.put("name", "姓名");
         headMap.put("birthday", "生日");
-        String sheetName = "学生列表";
-        String tableName = "学生列表";
-        Sheet sheet1 = workbook.createSheet(sheetName);
-        ExcelExportUtil.createTable(0, tableName, headMap, getStudents(), sheet1, workbook);
+        SXSSFWorkbook workbook = ExcelExportUtil.createStreamingWorkbook(500, ExportProfile.named(profile));
+        // 按导出设置日期格式；只有一个表，超过 1048576 行时换到新sheet
+        WorkbookContext.of(workbook).setDatePattern("yyyy-MM-dd").setMaxRowsPerSheet(Integer.MAX_VALUE);
+        // 在回调中填充，填充失败时同样删除临时文件
+        ExcelExportUtil.exportExcel(fileName, workbook, wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            ExcelExportUtil.createTable(0, headMap, getStudents(), sheet, wb);
+        }, response);
+    }
 
-        sheetName = "教师列表";
-        tableName = "教师列表";
-        headMap = new LinkedHashMap<>();
+    /**
+     * 分页拉取数据流式导出：每写完一页才查询下一页，不需要一次性加载全部数据
+     */
+    @GetMapping("/exportStudentsPaged")
+    @ApiOperation(value = "分页拉取流式导出")
+    @ResponseBody
+    public void exportStudentsPaged(HttpServletResponse response) {
+        String fileName = "学生列表";
+        Map<String, String> headMap = new LinkedHashMap<>();
+        headMap.put("id", "ID");
+        headMap.put("name", "姓名");
+        headMap.put("birthday", "生日");
+        List<Student> students = getStudents();
+        // 模拟数据库分页查询，实际项目中替换为 mapper 的分页方法
+        Iterator<Student> rows = RowSources.paged((offset, limit) ->
+                students.subList(Math.min(offset, students.size()), Math.min(offset + limit, students.size())), 2);
+        ExcelExportUtil.exportStreamingExcel(fileName, headMap, rows, 500, response);
+    }
+
+    /**
+     * 边生成边输出：立即返回响应头，生成在导出线程中进行，客户端读取慢时缓冲溢出到临时文件
+     */
+    @GetMapping("/streamStudents")
+    @ApiOperation(value = "边生成边输出")
+    public StreamingResponseBody streamStudents(HttpServletResponse response) {
+        String fileName = "学生列表";
+        Map<String, String> headMap = new LinkedHashMap<>();
+        headMap.put("id", "ID");
         headMap.put("name", "姓名");
-        headMap.put("subject", "科目");
-        Sheet sheet2 = workbook.createSheet(sheetName);
-        ExcelExportUtil.createTable(0, tableName, headMap, getTeachers(), sheet2, workbook);
+        headMap.put("birthday", "生日");
+        List<Student> students = getStudents();
+        return ExcelExportUtil.streamExcel(fileName, ExcelExportUtil.createStreamingWorkbook(), workbook -> {
+            Sheet sheet = workbook.createSheet(fileName);
+            ExcelExportUtil.createTable(0, headMap, students, sheet, workbook);
+        }, response);
+    }
+
+    /**
+     * 创建多个sheet 导出
+     */
+    @GetMapping("/exportStudentsAndTeachers")
+    @ApiOperation(value = "多sheet导出")
+    @ResponseBody
+    public void exportStudentsAndTeachers(HttpServletResponse response) {
+        String fileName = "学生和老师列表";
+        List<Student> students = getStudents();
+        List<Teacher> teachers = getTeachers();
+        // HSSF 整个 workbook 都在堆中，createTable 按每个表的行数×列数补足请求已按默认大小预留的内存，预算不足时返回503
+        ExcelExportUtil.exportExcel(fileName, new HSSFWorkbook(), workbook -> {
+            Map<String, String> headMap = new LinkedHashMap<>();
+            headMap.put("name", "姓名");
+            headMap.put("birthday", "生日");
+            String sheetName = "学生列表";
+            String tableName = "学生列表";
+            Sheet sheet1 = workbook.createSheet(sheetName);
+            ExcelExportUtil.createTable(0, tableName, headMap, students, sheet1, workbook);
+
+            sheetName = "教师列表";
+            tableName = "教师列表";
+            headMap = new LinkedHashMap<>();
+            headMap.put("name", "姓名");
+            headMap.put("subject", "科目");
+            Sheet sheet2 = workbook.createSheet(sheetName);
+            ExcelExportUtil.createTable(0, tableName, headMap, teachers, sheet2, workbook);
+        }, response);
+    }
+
+    /**
+     * 多sheet并行导出：各sheet互不依赖时并行填充，sheet顺序与添加顺序一致，输出时各sheet并行压缩
+     */
+    @GetMapping("/exportStudentsAndTeachersParallel")
+    @ApiOperation(value = "多sheet并行导出")
+    @ResponseBody
+    public void exportStudentsAndTeachersParallel(HttpServletResponse response) {
+        String fileName = "学生和老师列表";
 
-        ExcelExportUtil.exportExcel(fileName, workbook, response);
+        Map<String, String> studentHeadMap = new LinkedHashMap<>();
+        studentHeadMap.put("name", "姓名");
+        studentHeadMap.put("birthday", "生日");
+        Map<String, String> teacherHeadMap = new LinkedHashMap<>();
+        teacherHeadMap.put("name", "姓名");
+        teacherHeadMap.put("subject", "科目");
+
+        LinkedHashMap<String, BiConsumer<Sheet, Workbook>> sheetWriters = new LinkedHashMap<>();
+        sheetWriters.put("学生列表", (sheet, wb) -> ExcelExportUtil.createTable(0, "学生列表", studentHeadMap, getStudents(), sheet, wb));
+        sheetWriters.put("教师列表", (sheet, wb) -> ExcelExportUtil.createTable(0, "教师列表", teacherHeadMap, getTeachers(), sheet, wb));
+        ExcelExportUtil.exportExcel(fileName, ExcelExportUtil.createStreamingWorkbook(), workbook -> ExcelExportUtil.createSheets(sheetWriters, workbook), response);
     }
 
     /**
@@ -77,24 +220,23 @@ public class StudentController {
     @ApiOperation(value = "同sheet多表导出")
     @ResponseBody
     public void exportStudentsAndTeachers2(HttpServletResponse response) {
-        HSSFWorkbook workbook = new HSSFWorkbook();
         String fileName = "学生和老师列表";
         String sheetName = "学生和老师列表";
-        Sheet sheet = workbook.createSheet(sheetName);
-        Map<String, String> headMap = new LinkedHashMap<>();
-        headMap.put("name", "姓名");
-        headMap.put("birthday", "生日");
-        String tableName = "学生列表";
-        int line = ExcelExportUtil.createSheetTitle(headMap.size(), fileName, sheet, workbook);
-        line = ExcelExportUtil.createTable(line, tableName, headMap, getStudents(), sheet, workbook);
-
-        tableName = "教师列表";
-        headMap = new LinkedHashMap<>();
-        headMap.put("name", "姓名");
-        headMap.put("subject", "科目");
-        ExcelExportUtil.createTable(line, tableName, headMap, getTeachers(), sheet, workbook);
-
-        ExcelExportUtil.exportExcel(fileName, workbook, response);
+        ExcelExportUtil.exportExcel(fileName, new HSSFWorkbook(), workbook -> {
+            Sheet sheet = workbook.createSheet(sheetName);
+            Map<String, String> headMap = new LinkedHashMap<>();
+            headMap.put("name", "姓名");
+            headMap.put("birthday", "生日");
+            String tableName = "学生列表";
+            int line = ExcelExportUtil.createSheetTitle(headMap.size(), fileName, sheet, workbook);
+            line = ExcelExportUtil.createTable(line, tableName, headMap, getStudents(), sheet, workbook);
+
+            tableName = "教师列表";
+            headMap = new LinkedHashMap<>();
+            headMap.put("name", "姓名");
+            headMap.put("subject", "科目");
+            ExcelExportUtil.createTable(line, tableName, headMap, getTeachers(), sheet, workbook);
+        }, response);
     }
 
     /**
@@ -123,6 +265,84 @@ public class StudentController {
         ExcelExportUtil.exportMultiLevelHeadExcel(fileName, mergeHeads, scores, response);
     }
 
+    /**
+     * 多级合并表头单元格：表头布局编译一次后缓存，之后的请求只写数据
+     */
+    @GetMapping("/exportStudentScores3")
+    @ApiOperation(value = "缓存表头布局导出")
+    @ResponseBody
+    public void exportStudentScores3(HttpServletResponse response) {
+        String fileName = "学生成绩表";
+        ExcelLayout layout = ExcelLayout.cached("studentScores", () -> ExcelLayout.ofMultiLevelHead(getMergeHeads()));
+        List<Student> scores = getScores();
+        ExcelExportUtil.exportExcel(fileName, layout, scores, response);
+    }
+
+    /**
+     * 按模板导出：表头、样式、列宽在 templates/students.xlsx 中设计，模板编译一次后缓存
+     */
+    @GetMapping("/exportStudentScoresTemplate")
+    @ApiOperation(value = "模板导出")
+    @ResponseBody
+    public void exportStudentScoresTemplate(HttpServletResponse response) {
+        String fileName = "学生成绩单";
+        ExcelTemplate template = ExcelTemplate.cached("students", () -> {
+            try (InputStream in = new ClassPathResource("templates/students.xlsx").getInputStream()) {
+                return ExcelTemplate.compile(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        StudentInfo studentInfo = getStudentInfo();
+        ExcelExportUtil.exportExcel(fileName, template, studentInfo, studentInfo.getScores(), response);
+    }
+
+    /**
+     * 导出csv：与 exportStudentScores3 相同的多级表头展开为一行列名，不创建POI对象
+     */
+    @GetMapping("/exportStudentScoresCsv")
+    @ApiOperation(value = "csv导出")
+    @ResponseBody
+    public void exportStudentScoresCsv(HttpServletResponse response) {
+        String fileName = "学生成绩表";
+        ExcelLayout layout = ExcelLayout.cached("studentScores", () -> ExcelLayout.ofMultiLevelHead(getMergeHeads()));
+        CsvExportUtil.exportCsv(fileName, layout, getScores().iterator(), CsvFormat.EXCEL, response);
+    }
+
+    /**
+     * 流式导入：按与 exportStudentScores3 相同的多级表头读取上传的 xls/xlsx，每批回调一次，可在回调中批量入库
+     */
+    @PostMapping("/importStudentScores")
+    @ApiOperation(value = "流式导入")
+    public String importStudentScores(@RequestParam("file") MultipartFile file) throws IOException {
+        ExcelLayout layout = ExcelLayout.cached("studentScores", () -> ExcelLayout.ofMultiLevelHead(getMergeHeads()));
+        List<Student> first = new ArrayList<>();
+        int count = ExcelImportUtil.importExcel(file.getInputStream(), layout, Student.class, ExcelImportUtil.DEFAULT_BATCH_SIZE, batch -> {
+            // 此处替换为批量保存
+            if (first.isEmpty()) {
+                first.addAll(batch.subList(0, Math.min(3, batch.size())));
+            }
+        });
+        return "导入 " + count + " 条，前几条：" + first;
+    }
+
+    /**
+     * 异步导出：提交后立即返回任务，通过 /export/jobs/{id} 查询状态，完成后从 /export/jobs/{id}/file 下载
+     */
+    @GetMapping("/async/exportStudentScores")
+    @ApiOperation(value = "异步导出")
+    public ExportJob asyncExportStudentScores() {
+        String fileName = "学生成绩表";
+        Map<String, Map<String, String>> mergeHeadMap = getMergeHeadMap();
+        List<Student> scores = getScores();
+        return exportJobService.submit(fileName, ExcelExportUtil::createStreamingWorkbook, workbook -> {
+            // 异步导出的数据量事先未知，只有一个表，超过 1048576 行时换到新sheet
+            WorkbookContext.of(workbook).setMaxRowsPerSheet(Integer.MAX_VALUE);
+            Sheet sheet = workbook.createSheet(fileName);
+            ExcelExportUtil.create2LevelHeadTable(0, mergeHeadMap, scores, sheet, workbook);
+        });
+    }
+
     /**
      * 简单对象表格导出
      */
@@ -131,13 +351,13 @@ public class StudentController {
     @ResponseBody
     public void exportStudent(HttpServletResponse response) {
         String fileName = "学生信息表";
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        Sheet sheet = workbook.createSheet(fileName);
         List<Map<String, Integer>> datas = getObjectCells();
         Student student = new Student(1, "赵日天", new Date(), 100, 100);
-        int line = ExcelExportUtil.createTableTitle(0, "成绩单", 6, sheet, workbook);
-        ExcelExportUtil.createSimpleObjectTable(line, datas, student, sheet, workbook);
-        ExcelExportUtil.exportExcel(fileName, workbook, response);
+        ExcelExportUtil.exportExcel(fileName, new HSSFWorkbook(), workbook -> {
+            Sheet sheet = workbook.createSheet(fileName);
+            int line = ExcelExportUtil.createTableTitle(0, "成绩单", 6, sheet, workbook);
+            ExcelExportUtil.createSimpleObjectTable(line, datas, student, sheet, workbook);
+        }, response);
     }
 
     @GetMapping("/exportStudents2")
@@ -145,13 +365,15 @@ public class StudentController {
     @ResponseBody
     public void exportStudents2(HttpServletResponse response) {
         String fileName = "学生成绩信息表";
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        Sheet sheet = workbook.createSheet(fileName);
         StudentInfo studentInfo = getStudentInfo();
-        List<Map<String, Object>> names = getStudents2();
-        int line = ExcelExportUtil.createTableTitle(0, "成绩单", 3, sheet, workbook);
-        ExcelExportUtil.createObjectTable(line, names, studentInfo, sheet, workbook);
-        ExcelExportUtil.exportExcel(fileName, workbook, response);
+        // 对象表格定义不随请求变化，编译一次后缓存
+        ExcelLayout layout = ExcelLayout.cached("studentInfo", () -> ExcelLayout.ofObject(getStudents2()));
+        // createObjectTable 按展开后的行数、列数和合并区域数补足请求已预留的内存
+        ExcelExportUtil.exportExcel(fileName, new HSSFWorkbook(), workbook -> {
+            Sheet sheet = workbook.createSheet(fileName);
+            int line = ExcelExportUtil.createTableTitle(0, "成绩单", 3, sheet, workbook);
+            ExcelExportUtil.createObjectTable(line, layout, studentInfo, sheet, workbook);
+        }, response);
     }
 
     private List<Map<String, Object>> getStudents2() {
@@ -0,0 +1,57 @@
+package oger.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.File;
+import java.util.Date;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description:
+ */
+@Data
+@ApiModel("异步导出任务")
+public class ExportJob {
+
+    public enum Status {
+        WAITING, RUNNING, SUCCESS, FAILED
+    }
+
+    public ExportJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+        this.status = Status.WAITING;
+        this.submitTime = new Date();
+    }
+
+    @ApiModelProperty("任务ID")
+    private String id;
+
+    @ApiModelProperty("文件名")
+    private String fileName;
+
+    @ApiModelProperty("状态：WAITING 排队中，RUNNING 生成中，SUCCESS 可下载，FAILED 失败")
+    private volatile Status status;
+
+    @ApiModelProperty("提交时间")
+    private Date submitTime;
+
+    @ApiModelProperty("完成时间")
+    private volatile Date finishTime;
+
+    @ApiModelProperty("失败原因")
+    private volatile String message;
+
+    @JsonIgnore
+    @ApiModelProperty(hidden = true)
+    private volatile File file;
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.SUCCESS || status == Status.FAILED;
+    }
+}
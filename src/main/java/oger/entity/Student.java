@@ -4,6 +4,8 @@ package oger.entity;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import oger.util.ExcelColumn;
 
 import java.util.Date;
 
@@ -13,6 +15,7 @@ import java.util.Date;
  * @Description:
  */
 @Data
+@NoArgsConstructor
 @ApiModel("学生实体类")
 public class Student {
 
@@ -38,17 +41,22 @@ public class Student {
     }
 
     @ApiModelProperty("ID")
+    @ExcelColumn(order = 1)
     private Integer id;
 
     @ApiModelProperty("姓名")
+    @ExcelColumn(order = 2)
     private String name;
 
     @ApiModelProperty("生日")
+    @ExcelColumn(order = 3, format = "yyyy-MM-dd")
     private Date birthday;
 
     @ApiModelProperty("语文成绩")
+    @ExcelColumn(order = 4)
     private Integer chineseScore;
 
     @ApiModelProperty("数学成绩")
+    @ExcelColumn(order = 5)
     private Integer mathScore;
 }
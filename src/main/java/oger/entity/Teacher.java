@@ -3,6 +3,7 @@ package oger.entity;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Data;
+import oger.util.ExcelColumn;
 
 /**
  * @Auther: Oger
@@ -20,11 +21,14 @@ public class Teacher {
     }
 
     @ApiModelProperty("ID")
+    @ExcelColumn(order = 1)
     private Integer id;
 
     @ApiModelProperty("姓名")
+    @ExcelColumn(order = 2)
     private String name;
 
     @ApiModelProperty("科目")
+    @ExcelColumn(order = 3)
     private String subject;
 }
@@ -0,0 +1,210 @@
+package oger.processor;
+
+import oger.util.ExcelColumn;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: @ExcelColumn 注解处理器
+ * 为每个带 @ExcelColumn 字段的实体类生成同包下的 XxxRowWriter：按列顺序直接调用 getter 取值，导出时不使用反射；
+ * getter 优先使用类中已声明的方法，否则按 Lombok 的命名规则(boolean 为 isXxx，字段名已是 isXxx 时不再加前缀；其余为 getXxx)
+ */
+@SupportedAnnotationTypes("oger.util.ExcelColumn")
+public class ExcelColumnProcessor extends AbstractProcessor {
+
+    private static final String API_MODEL_PROPERTY = "io.swagger.annotations.ApiModelProperty";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> types = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(ExcelColumn.class)) {
+            if (element.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            types.computeIfAbsent((TypeElement) element.getEnclosingElement(), t -> new ArrayList<>()).add((VariableElement) element);
+        }
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : types.entrySet()) {
+            TypeElement type = entry.getKey();
+            if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@ExcelColumn 只支持顶层类", type);
+                continue;
+            }
+            try {
+                generate(type, columns(type, entry.getValue()));
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "生成 RowWriter 失败：" + e.getMessage(), type);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按 order 排序，相同时保持字段声明顺序
+     */
+    private List<Column> columns(TypeElement type, List<VariableElement> fields) {
+        List<Column> columns = new ArrayList<>(fields.size());
+        for (VariableElement field : fields) {
+            ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+            Column column = new Column();
+            column.order = annotation.order();
+            column.fieldName = field.getSimpleName().toString();
+            column.headName = annotation.header().isEmpty() ? apiModelProperty(field, column.fieldName) : annotation.header();
+            column.format = annotation.format();
+            column.width = annotation.width();
+            column.type = processingEnv.getTypeUtils().erasure(field.asType()).toString();
+            column.getter = getter(type, field);
+            columns.add(column);
+        }
+        columns.sort(Comparator.comparingInt(column -> column.order));
+        return columns;
+    }
+
+    private String apiModelProperty(VariableElement field, String defaultValue) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!API_MODEL_PROPERTY.equals(mirror.getAnnotationType().toString())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("value") && !value.getValue().getValue().toString().isEmpty()) {
+                    return value.getValue().getValue().toString();
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private String getter(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean primitiveBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+        // boolean 字段名为 isXxx 时 Lombok 生成 isXxx()，不是 isIsXxx()
+        boolean isPrefixed = primitiveBoolean && name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2));
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.METHOD && ((ExecutableElement) element).getParameters().isEmpty()) {
+                String methodName = element.getSimpleName().toString();
+                if (methodName.equals("get" + suffix) || methodName.equals("is" + suffix) || (isPrefixed && methodName.equals(name))) {
+                    return methodName;
+                }
+            }
+        }
+        if (isPrefixed) {
+            return name;
+        }
+        return (primitiveBoolean ? "is" : "get") + suffix;
+    }
+
+    private void generate(TypeElement type, List<Column> columns) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String className = typeName + "RowWriter";
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? className : packageName + "." + className, type);
+        StringBuilder fieldNames = new StringBuilder();
+        StringBuilder headNames = new StringBuilder();
+        StringBuilder fieldTypes = new StringBuilder();
+        StringBuilder formats = new StringBuilder();
+        StringBuilder widths = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            String separator = i == 0 ? "" : ", ";
+            fieldNames.append(separator).append(literal(column.fieldName));
+            headNames.append(separator).append(literal(column.headName));
+            fieldTypes.append(separator).append(column.type).append(".class");
+            formats.append(separator).append(literal(column.format));
+            widths.append(separator).append(column.width);
+            values.append("        values[").append(i).append("] = row.").append(column.getter).append("();\n");
+        }
+        try (Writer writer = file.openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("import oger.util.RowWriter;\n\n"
+                    + "/**\n"
+                    + " * 由 ExcelColumnProcessor 根据 " + typeName + " 的 @ExcelColumn 生成，请勿修改\n"
+                    + " */\n"
+                    + "public final class " + className + " implements RowWriter<" + typeName + "> {\n\n"
+                    + "    private static final String[] FIELD_NAMES = {" + fieldNames + "};\n"
+                    + "    private static final String[] HEAD_NAMES = {" + headNames + "};\n"
+                    + "    private static final Class<?>[] FIELD_TYPES = {" + fieldTypes + "};\n"
+                    + "    private static final String[] FORMATS = {" + formats + "};\n"
+                    + "    private static final int[] WIDTHS = {" + widths + "};\n\n"
+                    + "    @Override\n"
+                    + "    public Class<" + typeName + "> getType() {\n"
+                    + "        return " + typeName + ".class;\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public String[] getFieldNames() {\n"
+                    + "        return FIELD_NAMES.clone();\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public String[] getHeadNames() {\n"
+                    + "        return HEAD_NAMES.clone();\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public Class<?>[] getFieldTypes() {\n"
+                    + "        return FIELD_TYPES.clone();\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public String[] getFormats() {\n"
+                    + "        return FORMATS.clone();\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public int[] getWidths() {\n"
+                    + "        return WIDTHS.clone();\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public void getValues(" + typeName + " row, Object[] values) {\n"
+                    + values
+                    + "    }\n"
+                    + "}\n");
+        }
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static class Column {
+        int order;
+        String fieldName;
+        String headName;
+        String format;
+        int width;
+        String type;
+        String getter;
+    }
+}
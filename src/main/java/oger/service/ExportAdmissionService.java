@@ -0,0 +1,321 @@
+package oger.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import oger.util.ExportAdmission;
+import oger.util.ExportMetrics;
+import oger.util.ExportRejectedException;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出准入控制
+ * 导出前按 行数 × 列数(对象表格另加合并区域数) 估算 workbook 占用的堆内存，从全局内存预算中预留，导出完成后归还；
+ * 预算不足时按到达顺序排队，等待超时则拒绝(503 + Retry-After)；单个导出的估算超过预算时按整个预算预留，即独占执行
+ * 导出接口(ExportAdmissionInterceptor)、异步导出(ExportJobService)、缓存导出(ExportCacheService)在生成前按默认大小预留，不需要各接口自己调用；
+ * 创建表格时(ExcelExportUtil.createTable 等)数据集和表头已确定，按估算并入当前导出的预留(ExportAdmission)：
+ * 各表的估算累加，超过已预留的部分补足(已持有预留，不排队，剩余预算不足时立即拒绝)，导出结束时一起归还；
+ * 在线程池中创建表格时由 ExportAdmission.propagate 把预留带到执行任务的线程
+ * 用法：Reservation reservation = admission.acquire(workbook, rows, columns); try { 填充并导出 } finally { reservation.close(); }
+ */
+@Service
+public class ExportAdmissionService {
+
+    private static Logger logger = LoggerFactory.getLogger(ExportAdmissionService.class);
+
+    // 每个合并区域的粗略堆占用：CellRangeAddress 及 sheet 中的合并记录
+    private static final long MERGE_BYTES = 100;
+    // 信号量按 KB 计数
+    private static final int UNIT = 1024;
+    // 请求的预留保存在请求属性中，异步请求(StreamingResponseBody)的多次分派共用
+    private static final String REQUEST_ATTRIBUTE = ExportAdmissionService.class.getName() + ".RESERVATION";
+
+    @Value("${excel.export.admission.memory-budget-mb:512}")
+    private long memoryBudgetMb;
+
+    @Value("${excel.export.admission.max-wait-seconds:10}")
+    private long maxWaitSeconds;
+
+    @Value("${excel.export.admission.retry-after-seconds:30}")
+    private int retryAfterSeconds;
+
+    @Value("${excel.export.admission.default-reservation-mb:16}")
+    private long defaultReservationMb;
+
+    private int budget;
+    private Semaphore semaphore;
+    // 异步导出、缓存导出等不在请求中的导出，预留绑定到生成workbook的线程
+    private final ThreadLocal<Reservation> threadReservation = new ThreadLocal<>();
+
+    @PostConstruct
+    public void init() {
+        budget = (int) Math.min(Integer.MAX_VALUE, memoryBudgetMb * 1024 * 1024 / UNIT);
+        // 公平模式：大导出排在队首时，后到的小导出不会插队使其饿死
+        semaphore = new Semaphore(budget, true);
+        Gauge.builder("excel.export.admission.reserved", semaphore, s -> (double) (budget - s.availablePermits()) * UNIT)
+                .description("导出已预留的堆内存")
+                .baseUnit("bytes")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("excel.export.admission.waiting", semaphore, Semaphore::getQueueLength)
+                .description("等待内存预算的导出数")
+                .register(Metrics.globalRegistry);
+        ExportAdmission.configure(new ExportAdmission.Reserver() {
+            @Override
+            public void reserve(Workbook workbook, long rows, int columns, long merges) {
+                ExportAdmissionService.this.reserve(workbook, rows, columns, merges);
+            }
+
+            @Override
+            public Executor propagate(Executor executor) {
+                return ExportAdmissionService.this.propagate(executor);
+            }
+        });
+    }
+
+    /**
+     * 按默认大小预留，用于生成前不知道行数、列数的导出；之后在同一线程中创建表格时按估算补足
+     *
+     * @return 导出完成后关闭
+     */
+    public Reservation acquire() {
+        Reservation current = getCurrentReservation();
+        if (current != null) {
+            // 已在导出中，默认大小已经预留
+            return new Reservation(0);
+        }
+        Reservation reservation = new Reservation(reserveBytes(defaultReservationMb * 1024 * 1024), 0);
+        threadReservation.set(reservation);
+        return reservation;
+    }
+
+    /**
+     * 预留表格导出的内存
+     *
+     * @param workbook 尚未填充的workbook，用于区分 xls/xlsx/流式
+     * @param rows     数据行数
+     * @param columns  列数
+     * @return 导出完成后关闭
+     */
+    public Reservation acquire(Workbook workbook, long rows, int columns) {
+        return acquire(workbook, rows, columns, 0);
+    }
+
+    /**
+     * 预留对象表格等带合并单元格的导出的内存
+     *
+     * @param workbook
+     * @param rows
+     * @param columns
+     * @param merges   合并区域数
+     * @return 导出完成后关闭
+     */
+    public Reservation acquire(Workbook workbook, long rows, int columns, long merges) {
+        return acquire(estimate(workbook, rows, columns, merges));
+    }
+
+    /**
+     * 预留指定字节数
+     *
+     * @param bytes
+     * @return 导出完成后关闭
+     */
+    public Reservation acquire(long bytes) {
+        int permits = toPermits(bytes);
+        Reservation current = getCurrentReservation();
+        if (current != null) {
+            // 并入当前导出的预留，返回的预留关闭时不归还
+            current.add(permits);
+            return new Reservation(0);
+        }
+        reserve(permits);
+        Reservation reservation = new Reservation(permits);
+        threadReservation.set(reservation);
+        return reservation;
+    }
+
+    /**
+     * 按表格估算补足当前导出的预留，不在导出中时不预留(ExportAdmission)
+     *
+     * @param workbook
+     * @param rows
+     * @param columns
+     * @param merges
+     */
+    public void reserve(Workbook workbook, long rows, int columns, long merges) {
+        Reservation current = getCurrentReservation();
+        if (current != null) {
+            current.add(toPermits(estimate(workbook, rows, columns, merges)));
+        }
+    }
+
+    /**
+     * 捕获当前导出的预留，经返回的线程池执行的任务在执行线程中以该预留为当前导出；
+     * 线程池中的线程没有请求上下文，不传递时在其中创建的表格不计入预留
+     *
+     * @param executor
+     * @return 不在导出中时返回原线程池
+     */
+    public Executor propagate(Executor executor) {
+        Reservation current = getCurrentReservation();
+        if (current == null) {
+            return executor;
+        }
+        return task -> executor.execute(() -> {
+            Reservation previous = threadReservation.get();
+            threadReservation.set(current);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    threadReservation.remove();
+                } else {
+                    threadReservation.set(previous);
+                }
+            }
+        });
+    }
+
+    /**
+     * 为导出请求按默认大小预留，同一请求的多次分派只预留一次
+     *
+     * @param request
+     */
+    public void acquireForRequest(HttpServletRequest request) {
+        if (request.getAttribute(REQUEST_ATTRIBUTE) == null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, new Reservation(reserveBytes(defaultReservationMb * 1024 * 1024), 0));
+        }
+    }
+
+    /**
+     * 请求结束，归还请求的预留
+     *
+     * @param request
+     */
+    public void releaseForRequest(HttpServletRequest request) {
+        Reservation reservation = (Reservation) request.getAttribute(REQUEST_ATTRIBUTE);
+        if (reservation != null) {
+            request.removeAttribute(REQUEST_ATTRIBUTE);
+            reservation.close();
+        }
+    }
+
+    private Reservation getCurrentReservation() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Reservation current = attributes == null ? null : (Reservation) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (current != null) {
+            return current;
+        }
+        current = threadReservation.get();
+        if (current != null && current.released.get()) {
+            // 在其他线程关闭的预留不再作为当前导出
+            threadReservation.remove();
+            return null;
+        }
+        return current;
+    }
+
+    private int toPermits(long bytes) {
+        return (int) Math.max(1, Math.min(budget, (bytes + UNIT - 1) / UNIT));
+    }
+
+    private int reserveBytes(long bytes) {
+        int permits = toPermits(bytes);
+        reserve(permits);
+        return permits;
+    }
+
+    private void reserve(int permits) {
+        try {
+            if (!semaphore.tryAcquire(permits, maxWaitSeconds, TimeUnit.SECONDS)) {
+                logger.warn("导出内存预算不足，拒绝导出：需要 {}KB，剩余 {}KB", permits, semaphore.availablePermits());
+                throw new ExportRejectedException("导出任务过多，请稍后重试", retryAfterSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExportRejectedException("导出任务过多，请稍后重试", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * 估算导出占用的堆内存
+     *
+     * @param workbook
+     * @param rows
+     * @param columns
+     * @param merges
+     * @return 字节数
+     */
+    public static long estimate(Workbook workbook, long rows, int columns, long merges) {
+        return ExportMetrics.estimateHeap(workbook, rows * columns, columns) + merges * MERGE_BYTES;
+    }
+
+    /**
+     * 内存预留，关闭时归还；重复关闭只归还一次
+     */
+    public class Reservation implements AutoCloseable {
+
+        private volatile int permits;
+        // 已并入的估算之和，超过已预留时补足
+        private long estimated;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(int permits) {
+            this(permits, permits);
+        }
+
+        private Reservation(int permits, long estimated) {
+            this.permits = permits;
+            this.estimated = estimated;
+        }
+
+        /**
+         * 预留的字节数
+         *
+         * @return
+         */
+        public long getBytes() {
+            return (long) permits * UNIT;
+        }
+
+        /**
+         * 并入一个估算，估算之和超过已预留时补足差额，最多补足到整个预算；
+         * 补足时已持有预留，排队等待会与其他同样在补足的导出互相等待，剩余预算不足时立即拒绝
+         */
+        private synchronized void add(int permits) {
+            estimated += permits;
+            int target = (int) Math.min(budget, estimated);
+            if (target > this.permits && !released.get()) {
+                int missing = target - this.permits;
+                if (!semaphore.tryAcquire(missing)) {
+                    logger.warn("导出内存预算不足，拒绝导出：需要补足 {}KB，剩余 {}KB", missing, semaphore.availablePermits());
+                    throw new ExportRejectedException("导出任务过多，请稍后重试", retryAfterSeconds);
+                }
+                this.permits = target;
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release(permits);
+                if (threadReservation.get() == this) {
+                    threadReservation.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package oger.service;
+
+import oger.util.ExcelExportUtil;
+import oger.util.WorkbookContext;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出结果缓存
+ * 按 导出名称 + 参数 + 数据版本 缓存生成的文件：内存层按总字节数 LRU 淘汰，淘汰的内容转存到磁盘层，磁盘层同样按总字节数 LRU 删除；
+ * 超过内存层上限的结果生成时直接写入磁盘层，不在内存中缓存整个文件；
+ * 正在输出的磁盘文件被淘汰时只移出索引，最后一个请求输出完成后再删除；写入、删除文件都不持有缓存的锁；
+ * ETag 由缓存键计算，数据版本不变时客户端带 If-None-Match 请求直接返回 304，不生成也不读取文件；
+ * 同一个键同时只生成一次，并发请求等待同一结果；生成前按默认大小预留内存、创建表格时按估算补足(ExportAdmissionService)
+ */
+@Service
+public class ExportCacheService {
+
+    private static Logger logger = LoggerFactory.getLogger(ExportCacheService.class);
+
+    @Value("${excel.export.cache.memory-size-mb:64}")
+    private long memorySizeMb;
+
+    @Value("${excel.export.cache.disk-size-mb:1024}")
+    private long diskSizeMb;
+
+    @Autowired
+    private ExportAdmissionService exportAdmissionService;
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> spilling = new HashMap<>();    // 已移出内存层、正在写入磁盘的
+    private final Map<String, CompletableFuture<Entry>> building = new ConcurrentHashMap<>();
+    private final AtomicLong fileSequence = new AtomicLong();
+    private long memoryLimit;
+    private long diskLimit;
+    private long memoryBytes;
+    private long diskBytes;
+    private File cacheDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        memoryLimit = memorySizeMb * 1024 * 1024;
+        diskLimit = diskSizeMb * 1024 * 1024;
+        cacheDir = Files.createDirectories(Paths.get(System.getProperty("java.io.tmpdir"), "excel-export-cache")).toFile();
+        // 上次运行留下的文件不在索引中，直接删除
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                deleteFile(file);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        List<File> deletions = new ArrayList<>();
+        synchronized (this) {
+            disk.values().forEach(entry -> discard(entry, deletions));
+            disk.clear();
+            memory.clear();
+            spilling.values().forEach(entry -> entry.discarded = true);
+            spilling.clear();
+            memoryBytes = 0;
+            diskBytes = 0;
+        }
+        deletions.forEach(ExportCacheService::deleteFile);
+    }
+
+    /**
+     * 带缓存的导出：命中时直接输出缓存的文件，ETag 匹配时返回 304
+     *
+     * @param exportName  导出名称，如接口路径
+     * @param params      影响导出内容的参数，可为空
+     * @param dataVersion 数据版本，如表的最大更新时间；数据变化后版本必须变化
+     * @param fileName    下载时的文件名，不含后缀
+     * @param factory     创建workbook，只在未命中时调用
+     * @param writer      填充workbook，只在未命中时调用；填充失败时由缓存关闭workbook
+     * @param request
+     * @param response
+     */
+    public <W extends Workbook> void export(String exportName, Map<String, ?> params, Object dataVersion, String fileName,
+                                            Supplier<W> factory, Consumer<? super W> writer, HttpServletRequest request, HttpServletResponse response) {
+        String key = getKey(exportName, params, dataVersion);
+        String etag = "\"" + key + "\"";
+        response.setHeader("ETag", etag);
+        // 每次使用前都向服务端验证，未变化时只有 304 的开销
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        Entry entry = acquire(key);
+        while (entry == null) {
+            entry = build(key, exportName, factory, writer);
+        }
+        try {
+            if (entry.content != null) {
+                ExcelExportUtil.exportExcel(fileName, entry.suffix, entry.content, response);
+            } else {
+                ExcelExportUtil.exportFile(fileName, entry.file, response);
+            }
+        } finally {
+            release(entry);
+        }
+    }
+
+    /**
+     * 删除某个导出名称的全部缓存，用于数据版本无法表达的变化
+     *
+     * @param exportName
+     */
+    public void evict(String exportName) {
+        String prefix = getPrefix(exportName);
+        List<File> deletions = new ArrayList<>();
+        synchronized (this) {
+            memory.values().removeIf(entry -> {
+                if (entry.name.startsWith(prefix)) {
+                    memoryBytes -= entry.size;
+                    return true;
+                }
+                return false;
+            });
+            spilling.values().removeIf(entry -> {
+                if (entry.name.startsWith(prefix)) {
+                    entry.discarded = true;
+                    return true;
+                }
+                return false;
+            });
+            disk.values().removeIf(entry -> {
+                if (entry.name.startsWith(prefix)) {
+                    diskBytes -= entry.size;
+                    discard(entry, deletions);
+                    return true;
+                }
+                return false;
+            });
+        }
+        deletions.forEach(ExportCacheService::deleteFile);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 缓存键：参数按名称排序后与导出名称、数据版本一起做 SHA-256
+     */
+    private static String getKey(String exportName, Map<String, ?> params, Object dataVersion) {
+        StringBuilder sb = new StringBuilder(exportName).append('\n');
+        if (params != null) {
+            for (Map.Entry<String, ?> param : new TreeMap<>(params).entrySet()) {
+                sb.append(param.getKey()).append('=').append(param.getValue()).append('\n');
+            }
+        }
+        sb.append(dataVersion);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            // 保留导出名称前缀，便于按名称清除
+            StringBuilder hex = new StringBuilder(getPrefix(exportName));
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String getPrefix(String exportName) {
+        return exportName.replaceAll("[^A-Za-z0-9_]", "_") + "-";
+    }
+
+    /**
+     * 查找缓存并占用，输出完成后必须 release
+     */
+    private synchronized Entry acquire(String key) {
+        Entry entry = memory.get(key);
+        if (entry == null) {
+            entry = spilling.get(key);
+        }
+        if (entry == null) {
+            entry = disk.get(key);
+        }
+        return entry != null && pin(entry) ? entry : null;
+    }
+
+    /**
+     * 占用磁盘层的文件，占用期间被淘汰也不删除；已删除时返回 false
+     */
+    private synchronized boolean pin(Entry entry) {
+        if (entry.file == null) {
+            return true;
+        }
+        if (entry.discarded) {
+            return false;
+        }
+        entry.pins++;
+        return true;
+    }
+
+    private void release(Entry entry) {
+        if (entry.file == null) {
+            return;
+        }
+        boolean delete;
+        synchronized (this) {
+            delete = --entry.pins == 0 && entry.discarded;
+        }
+        if (delete) {
+            deleteFile(entry.file);
+        }
+    }
+
+    /**
+     * 移出索引的磁盘文件：没有请求在输出时直接删除，否则由最后一个请求 release 时删除
+     */
+    private static void discard(Entry entry, List<File> deletions) {
+        entry.discarded = true;
+        if (entry.pins == 0) {
+            deletions.add(entry.file);
+        }
+    }
+
+    /**
+     * 生成并缓存；同一个键的并发请求共用一次生成
+     *
+     * @return 已占用的结果；共用的结果在占用前已被删除时返回 null，由调用方重新查找
+     */
+    private <W extends Workbook> Entry build(String key, String exportName, Supplier<W> factory, Consumer<? super W> writer) {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = building.putIfAbsent(key, future);
+        if (existing != null) {
+            Entry entry = await(existing);
+            return pin(entry) ? entry : null;
+        }
+        CacheOutputStream out = null;
+        ExportAdmissionService.Reservation reservation = null;
+        try {
+            // 创建表格时按估算补足预留；预算不足时等待中的同键请求一起失败
+            reservation = exportAdmissionService.acquire();
+            // 填充失败时关闭workbook，删除流式导出的临时文件
+            Workbook workbook = ExcelExportUtil.fillWorkbook(factory.get(), writer);
+            WorkbookContext context = WorkbookContext.of(workbook);
+            if (context.getExportName() == null) {
+                context.setExportName(exportName);
+            }
+            String suffix = ExcelExportUtil.getFileSuffix(workbook);
+            out = new CacheOutputStream(newFile(key, suffix));
+            ExcelExportUtil.exportExcel(workbook, out);
+            out.close();
+            Entry entry = out.file != null ? new Entry(key, suffix, out.file, out.size) : new Entry(key, suffix, out.buffer.toByteArray());
+            out = null;
+            put(entry);
+            future.complete(entry);
+            return entry;
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            logger.error("导出文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (reservation != null) {
+                reservation.close();
+            }
+            building.remove(key);
+            if (out != null) {
+                out.abort();
+            }
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("导出文件失败");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("导出文件失败");
+        }
+    }
+
+    /**
+     * 加入缓存，生成的请求占用该结果；转存和删除文件在锁外进行
+     */
+    private void put(Entry entry) {
+        List<Entry> spills = new ArrayList<>();
+        List<File> deletions = new ArrayList<>();
+        synchronized (this) {
+            if (entry.file != null) {
+                entry.pins++;
+            }
+            Entry old = memory.remove(entry.name);
+            if (old != null) {
+                memoryBytes -= old.size;
+            }
+            old = spilling.remove(entry.name);
+            if (old != null) {
+                old.discarded = true;
+            }
+            old = disk.remove(entry.name);
+            if (old != null) {
+                diskBytes -= old.size;
+                discard(old, deletions);
+            }
+            if (entry.file != null) {
+                // 超过内存层上限、生成时已写入磁盘的
+                addToDisk(entry, deletions);
+            } else {
+                memory.put(entry.name, entry);
+                memoryBytes += entry.size;
+            }
+            // 内存层超出上限时，最久未使用的转存到磁盘
+            Iterator<Entry> it = memory.values().iterator();
+            while (memoryBytes > memoryLimit && it.hasNext()) {
+                Entry eldest = it.next();
+                it.remove();
+                memoryBytes -= eldest.size;
+                if (eldest.size <= diskLimit) {
+                    spilling.put(eldest.name, eldest);
+                    spills.add(eldest);
+                }
+            }
+        }
+        deletions.forEach(ExportCacheService::deleteFile);
+        spills.forEach(this::spill);
+    }
+
+    /**
+     * 加入磁盘层并按上限删除最久未使用的，需持有锁；超过磁盘层上限的不缓存，输出完成后删除
+     */
+    private void addToDisk(Entry entry, List<File> deletions) {
+        if (entry.size > diskLimit) {
+            discard(entry, deletions);
+            return;
+        }
+        disk.put(entry.name, entry);
+        diskBytes += entry.size;
+        Iterator<Entry> it = disk.values().iterator();
+        while (diskBytes > diskLimit && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest == entry) {
+                continue;
+            }
+            it.remove();
+            diskBytes -= eldest.size;
+            discard(eldest, deletions);
+        }
+    }
+
+    /**
+     * 内存层淘汰的内容写入磁盘，写入期间仍从内存中命中；写入期间被替换或清除的不再加入磁盘层
+     */
+    private void spill(Entry entry) {
+        File file = newFile(entry.name, entry.suffix);
+        try {
+            Files.write(file.toPath(), entry.content);
+        } catch (IOException e) {
+            // 转存失败只影响缓存命中率
+            logger.warn("导出缓存写入磁盘失败：{}", file, e);
+            synchronized (this) {
+                spilling.remove(entry.name, entry);
+            }
+            deleteFile(file);
+            return;
+        }
+        List<File> deletions = new ArrayList<>();
+        synchronized (this) {
+            if (spilling.remove(entry.name, entry) && !entry.discarded) {
+                addToDisk(new Entry(entry.name, entry.suffix, file, entry.size), deletions);
+            } else {
+                deletions.add(file);
+            }
+        }
+        deletions.forEach(ExportCacheService::deleteFile);
+    }
+
+    /**
+     * 每次写入使用新文件名，被替换的旧文件在输出完成前不受影响
+     */
+    private File newFile(String name, String suffix) {
+        return new File(cacheDir, name + "-" + fileSequence.incrementAndGet() + suffix);
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            logger.warn("删除导出缓存文件失败：{}", file);
+        }
+    }
+
+    /**
+     * 生成结果的输出流：不超过内存层上限时保存在内存中，超出后把已写入的内容和后续内容写入文件
+     */
+    private class CacheOutputStream extends OutputStream {
+        private final File target;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream fileOut;
+        private File file;
+        private long size;
+
+        CacheOutputStream(File target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && size + len > memoryLimit) {
+                file = target;
+                fileOut = new FileOutputStream(file);
+                buffer.writeTo(fileOut);
+                buffer = null;
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+            size += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileOut != null) {
+                fileOut.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+
+        /**
+         * 生成失败，删除已写入的文件
+         */
+        void abort() {
+            try {
+                close();
+            } catch (IOException e) {
+                logger.warn("关闭导出缓存文件失败：{}", file, e);
+            }
+            if (file != null) {
+                deleteFile(file);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String name;
+        private final String suffix;
+        private final byte[] content;   // 内存层
+        private final File file;        // 磁盘层
+        private final long size;
+        private int pins;               // 正在输出该文件的请求数
+        private boolean discarded;      // 已移出索引，pins 为 0 时删除文件
+
+        Entry(String name, String suffix, byte[] content) {
+            this.name = name;
+            this.suffix = suffix;
+            this.content = content;
+            this.file = null;
+            this.size = content.length;
+        }
+
+        Entry(String name, String suffix, File file, long size) {
+            this.name = name;
+            this.suffix = suffix;
+            this.content = null;
+            this.file = file;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package oger.service;
+
+import oger.entity.ExportJob;
+import oger.util.ExcelExportUtil;
+import oger.util.ExportRejectedException;
+import oger.util.WorkbookContext;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 异步导出
+ * 导出在独立的定长线程池中生成，不占用 Tomcat 请求线程；结果写入临时文件，通过任务ID查询状态和下载；
+ * 队列满时拒绝新任务，完成的任务超过保留时间后删除临时文件；生成前按默认大小预留内存、创建表格时按估算补足(ExportAdmissionService)，预算不足时任务失败
+ */
+@Service
+public class ExportJobService {
+
+    private static Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    @Value("${excel.export.async.pool-size:2}")
+    private int poolSize;
+
+    @Value("${excel.export.async.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${excel.export.async.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Autowired
+    private ExportAdmissionService exportAdmissionService;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private File tempDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "excel-export-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        tempDir = Files.createDirectories(Paths.get(System.getProperty("java.io.tmpdir"), "excel-export")).toFile();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+        jobs.values().forEach(this::deleteFile);
+        jobs.clear();
+    }
+
+    /**
+     * 提交导出任务
+     *
+     * @param fileName 下载时的文件名，不含后缀
+     * @param factory  创建workbook，如 ExcelExportUtil::createStreamingWorkbook
+     * @param writer   填充workbook，与同步导出中的 createTable 等调用相同；填充失败时由任务关闭workbook
+     * @return
+     */
+    public <W extends Workbook> ExportJob submit(String fileName, Supplier<W> factory, Consumer<? super W> writer) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString().replace("-", ""), fileName);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, factory, writer));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ExportRejectedException("导出任务过多，请稍后重试");
+        }
+        return job;
+    }
+
+    /**
+     * 查询任务
+     *
+     * @param id
+     * @return 不存在或已过期时返回 null
+     */
+    public ExportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    private <W extends Workbook> void run(ExportJob job, Supplier<W> factory, Consumer<? super W> writer) {
+        job.setStatus(ExportJob.Status.RUNNING);
+        File file = null;
+        W workbook = null;
+        ExportAdmissionService.Reservation reservation = null;
+        try {
+            // 异步导出不在请求中，预留绑定到当前线程，创建表格时按估算补足；预算不足时任务失败
+            reservation = exportAdmissionService.acquire();
+            workbook = factory.get();
+            // 先持有workbook再填充，填充失败(如预算不足被拒绝)时由下面关闭
+            writer.accept(workbook);
+            file = new File(tempDir, job.getId() + ExcelExportUtil.getFileSuffix(workbook));
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                // exportExcel 写出后关闭workbook
+                W exported = workbook;
+                workbook = null;
+                ExcelExportUtil.exportExcel(exported, out);
+            }
+            job.setFile(file);
+            finish(job, ExportJob.Status.SUCCESS);
+        } catch (Exception e) {
+            logger.error("异步导出失败：{}", job.getFileName(), e);
+            if (workbook != null) {
+                // 未能填充或写出时关闭workbook，删除流式导出的临时文件
+                WorkbookContext.of(workbook).getMetrics().markFailed();
+                ExcelExportUtil.closeWorkbook(workbook);
+            }
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+            job.setMessage(e instanceof ExportRejectedException ? e.getMessage() : "导出文件失败");
+            finish(job, ExportJob.Status.FAILED);
+        } finally {
+            if (reservation != null) {
+                reservation.close();
+            }
+        }
+    }
+
+    /**
+     * 先记录完成时间再发布终态，清理任务看到已完成时完成时间一定存在
+     */
+    private void finish(ExportJob job, ExportJob.Status status) {
+        job.setFinishTime(new Date());
+        job.setStatus(status);
+    }
+
+    /**
+     * 清理过期任务及其临时文件
+     */
+    @Scheduled(fixedDelayString = "${excel.export.async.clean-interval-ms:60000}")
+    public void cleanExpired() {
+        long expireTime = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ttlMinutes);
+        Iterator<ExportJob> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            ExportJob job = it.next();
+            if (job.isFinished() && job.getFinishTime().getTime() < expireTime) {
+                it.remove();
+                deleteFile(job);
+            }
+        }
+    }
+
+    private void deleteFile(ExportJob job) {
+        File file = job.getFile();
+        if (file != null && file.exists() && !file.delete()) {
+            logger.warn("删除导出临时文件失败：{}", file);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package oger.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 单元格值转换器
+ * 把字段值转换为 kind 对应的写入值：STRING->String、NUMERIC->Double、DATE->Date、BOOLEAN->Boolean
+ * 转换器必须是无状态、线程安全的
+ */
+public final class CellConverter {
+
+    public static final String DEFAULT_DATE_PATTERN = "yyyy年MM月dd日";
+    public static final String DEFAULT_DATE_TIME_PATTERN = "yyyy年MM月dd日 HH:mm:ss";
+
+    /**
+     * 超过15位有效数字的数值写成 double 会丢失精度，按文本写入
+     */
+    private static final long MAX_EXACT_NUMBER = 999999999999999L;
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    public static final CellConverter STRING = new CellConverter(CellKind.STRING, null, Object::toString);
+    public static final CellConverter NUMERIC = new CellConverter(CellKind.NUMERIC, null, value -> ((Number) value).doubleValue());
+    public static final CellConverter BOOLEAN = new CellConverter(CellKind.BOOLEAN, null, value -> value);
+    public static final CellConverter DATE = date(DEFAULT_DATE_PATTERN);
+    public static final CellConverter DATE_TIME = date(DEFAULT_DATE_TIME_PATTERN);
+    public static final CellConverter LONG = new CellConverter(CellKind.DYNAMIC, null, CellConverter::toExactNumber);
+    public static final CellConverter DYNAMIC = dynamic(DEFAULT_DATE_PATTERN);
+
+    private final CellKind kind;
+    private final String pattern;
+    private final Function<Object, Object> function;
+
+    private CellConverter(CellKind kind, String pattern, Function<Object, Object> function) {
+        this.kind = kind;
+        this.pattern = pattern;
+        this.function = function;
+    }
+
+    /**
+     * 自定义转换器：function 的返回值必须与 kind 对应
+     * 日期的格式在解析列的转换器时取 workbook 的日期格式(WorkbookContext#setDatePattern)，需要固定格式时用 of(kind, pattern, function)
+     *
+     * @param kind
+     * @param function
+     * @return
+     */
+    public static CellConverter of(CellKind kind, Function<Object, ?> function) {
+        return new CellConverter(kind, null, function::apply);
+    }
+
+    /**
+     * 自定义转换器：日期按指定格式显示
+     *
+     * @param kind     DATE 或 DYNAMIC
+     * @param pattern  日期格式，如 yyyy-MM-dd
+     * @param function
+     * @return
+     */
+    public static CellConverter of(CellKind kind, String pattern, Function<Object, ?> function) {
+        return new CellConverter(kind, pattern, function::apply);
+    }
+
+    /**
+     * 文本转换器
+     *
+     * @param function
+     * @return
+     */
+    public static CellConverter text(Function<Object, String> function) {
+        return new CellConverter(CellKind.STRING, null, function::apply);
+    }
+
+    /**
+     * 日期转换器：支持 Date、Calendar 及 java.time 的日期类型
+     *
+     * @param pattern 日期格式，如 yyyy-MM-dd
+     * @return
+     */
+    public static CellConverter date(String pattern) {
+        return new CellConverter(CellKind.DATE, pattern, CellConverter::toDate);
+    }
+
+    /**
+     * 按值的实际类型写入的转换器，用于声明类型为 Object、Number 等的字段
+     *
+     * @param pattern 值为日期时的格式
+     * @return
+     */
+    public static CellConverter dynamic(String pattern) {
+        return new CellConverter(CellKind.DYNAMIC, pattern, CellConverter::toCellValue);
+    }
+
+    /**
+     * 日期转文本的转换器：写入格式化后的字符串而不是原生日期
+     * 每次调用创建独立的格式化缓存，应在一次导出内复用
+     *
+     * @param pattern 日期格式
+     * @return
+     */
+    public static CellConverter dateText(String pattern) {
+        DateFormatter formatter = DateFormatter.cached(pattern);
+        return new CellConverter(CellKind.STRING, null, formatter::format);
+    }
+
+    /**
+     * 根据字段类型获取默认转换器
+     *
+     * @param type getter 返回类型
+     * @return
+     */
+    public static CellConverter forType(Class<?> type) {
+        if (type == null || type == Object.class || type == Number.class || type == Comparable.class) {
+            return DYNAMIC;
+        }
+        if (type == Long.class || type == long.class || type == BigInteger.class || type == BigDecimal.class) {
+            return LONG;
+        }
+        if (Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class && type != char.class)) {
+            return NUMERIC;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return BOOLEAN;
+        }
+        if (type == LocalDateTime.class || type == ZonedDateTime.class || type == OffsetDateTime.class || type == Instant.class) {
+            return DATE_TIME;
+        }
+        if (Date.class.isAssignableFrom(type) || Calendar.class.isAssignableFrom(type) || type == LocalDate.class) {
+            return DATE;
+        }
+        return STRING;
+    }
+
+    public CellKind getKind() {
+        return kind;
+    }
+
+    /**
+     * 日期格式，非日期转换器为 null
+     *
+     * @return
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 可写入日期但未指定格式，由 CellConverters 解析时补上 workbook 的日期格式
+     */
+    boolean needsPattern() {
+        return pattern == null && (kind == CellKind.DATE || kind == CellKind.DYNAMIC) && this != LONG;
+    }
+
+    /**
+     * 相同转换、指定日期格式的转换器
+     */
+    CellConverter withPattern(String pattern) {
+        return new CellConverter(kind, pattern, function);
+    }
+
+    /**
+     * 转换字段值，value 不为 null
+     *
+     * @param value
+     * @return
+     */
+    public Object convert(Object value) {
+        return function.apply(value);
+    }
+
+    private static Object toExactNumber(Object value) {
+        Number number = (Number) value;
+        if (number instanceof BigDecimal) {
+            return toExactDecimal((BigDecimal) number);
+        }
+        if (number instanceof BigInteger && number.toString().length() > MAX_EXACT_DIGITS) {
+            return number.toString();
+        }
+        long v = number.longValue();
+        return v > MAX_EXACT_NUMBER || v < -MAX_EXACT_NUMBER ? number.toString() : (Object) (double) v;
+    }
+
+    /**
+     * 不超过15位有效数字且在 double 范围内的小数按数值写入，否则按文本写入
+     */
+    private static Object toExactDecimal(BigDecimal decimal) {
+        if (decimal.signum() == 0) {
+            return 0d;
+        }
+        if (decimal.stripTrailingZeros().precision() > MAX_EXACT_DIGITS) {
+            return decimal.toString();
+        }
+        double v = decimal.doubleValue();
+        return Double.isInfinite(v) || v == 0 ? decimal.toString() : (Object) v;
+    }
+
+    private static Object toCellValue(Object value) {
+        if (value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Long || value instanceof BigInteger || value instanceof BigDecimal) {
+            return toExactNumber(value);
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        Date date = toDate(value);
+        return date != null ? date : value.toString();
+    }
+
+    static Date toDate(Object value) {
+        if (value instanceof Date) {
+            return (Date) value;
+        }
+        if (value instanceof Calendar) {
+            return ((Calendar) value).getTime();
+        }
+        if (value instanceof LocalDate) {
+            return Date.from(((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof LocalDateTime) {
+            return Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof ZonedDateTime) {
+            return Date.from(((ZonedDateTime) value).toInstant());
+        }
+        if (value instanceof OffsetDateTime) {
+            return Date.from(((OffsetDateTime) value).toInstant());
+        }
+        if (value instanceof Instant) {
+            return Date.from((Instant) value);
+        }
+        return null;
+    }
+
+    /**
+     * 转换为Excel数字格式：月份统一为 m，小时为 h，java 的 '' 引号转为 ""
+     *
+     * @param pattern java 日期格式
+     * @return
+     */
+    static String toExcelFormat(String pattern) {
+        StringBuilder format = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == 'M') {
+                c = 'm';
+            } else if (c == 'H') {
+                c = 'h';
+            } else if (c == 'S') {
+                c = '0';
+            } else if (c == '\'') {
+                c = '"';
+            }
+            format.append(c);
+        }
+        return format.toString();
+    }
+}
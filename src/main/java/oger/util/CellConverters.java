@@ -0,0 +1,129 @@
+package oger.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 单元格转换器注册表
+ * 按列(字段名)注册的转换器优先，其次按字段类型注册的转换器，最后使用 {@link CellConverter#forType(Class)} 的默认转换器
+ * 每列只解析一次，写入时不再逐个单元格判断类型；自定义的日期转换器未指定格式时，解析时使用当前workbook的日期格式
+ */
+public class CellConverters {
+
+    private static final Map<Class<?>, CellConverter> TYPE_CONVERTERS = new ConcurrentHashMap<>();
+
+    private final Map<String, CellConverter> columnConverters = new ConcurrentHashMap<>();
+    private volatile CellConverter dateConverter = CellConverter.DATE;
+    private volatile CellConverter dateTimeConverter = CellConverter.DATE_TIME;
+    private volatile CellConverter dynamicConverter = CellConverter.DYNAMIC;
+    // 未指定格式的自定义转换器 -> 补上日期格式的转换器，日期格式变化时清空
+    private final Map<CellConverter, CellConverter> patterned = new ConcurrentHashMap<>();
+
+    /**
+     * 全局注册某个类型的转换器
+     *
+     * @param type
+     * @param converter
+     */
+    public static void registerType(Class<?> type, CellConverter converter) {
+        TYPE_CONVERTERS.put(type, converter);
+    }
+
+    /**
+     * 注册某一列的转换器，仅对当前workbook生效
+     *
+     * @param fieldName
+     * @param converter
+     * @return
+     */
+    public CellConverters register(String fieldName, CellConverter converter) {
+        columnConverters.put(fieldName, converter);
+        return this;
+    }
+
+    /**
+     * 是否为该列注册了转换器
+     *
+     * @param fieldName
+     * @return
+     */
+    public boolean isRegistered(String fieldName) {
+        return columnConverters.containsKey(fieldName);
+    }
+
+    /**
+     * 设置日期字段的默认格式，仅对当前workbook生效；类型不确定的字段值为日期时也按此格式
+     *
+     * @param pattern
+     */
+    public void setDatePattern(String pattern) {
+        dateConverter = CellConverter.date(pattern);
+        dynamicConverter = CellConverter.dynamic(pattern);
+        patterned.clear();
+    }
+
+    /**
+     * 设置日期时间字段的默认格式，仅对当前workbook生效
+     *
+     * @param pattern
+     */
+    public void setDateTimePattern(String pattern) {
+        dateTimeConverter = CellConverter.date(pattern);
+    }
+
+    /**
+     * 解析某一列的转换器
+     *
+     * @param accessor
+     * @return
+     */
+    public CellConverter resolve(PropertyAccessor accessor) {
+        return resolve(accessor.getFieldName(), accessor.getType());
+    }
+
+    /**
+     * 按字段名和类型解析某一列的转换器
+     *
+     * @param fieldName
+     * @param type      未知时为 null
+     * @return
+     */
+    public CellConverter resolve(String fieldName, Class<?> type) {
+        CellConverter converter = columnConverters.get(fieldName);
+        if (converter == null && type != null) {
+            converter = TYPE_CONVERTERS.get(type);
+        }
+        if (converter != null) {
+            return converter.needsPattern() ? withDatePattern(converter) : converter;
+        }
+        converter = CellConverter.forType(type);
+        if (converter == CellConverter.DATE) {
+            return dateConverter;
+        }
+        if (converter == CellConverter.DYNAMIC) {
+            return dynamicConverter;
+        }
+        return converter == CellConverter.DATE_TIME ? dateTimeConverter : converter;
+    }
+
+    private CellConverter withDatePattern(CellConverter converter) {
+        String pattern = dateConverter.getPattern();
+        return patterned.computeIfAbsent(converter, c -> c.withPattern(pattern));
+    }
+
+    /**
+     * 批量解析转换器
+     *
+     * @param accessors
+     * @return
+     */
+    public CellConverter[] resolve(PropertyAccessor[] accessors) {
+        CellConverter[] converters = new CellConverter[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            converters[i] = resolve(accessors[i]);
+        }
+        return converters;
+    }
+}
@@ -0,0 +1,34 @@
+package oger.util;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 单元格写入类型，每列解析一次，写入时按类型分派
+ */
+public enum CellKind {
+
+    /**
+     * 文本
+     */
+    STRING,
+
+    /**
+     * 数值
+     */
+    NUMERIC,
+
+    /**
+     * 日期：写入原生日期并使用日期格式样式
+     */
+    DATE,
+
+    /**
+     * 布尔
+     */
+    BOOLEAN,
+
+    /**
+     * 编译期无法确定类型(如字段声明为Object)，写入时按值的实际类型判断
+     */
+    DYNAMIC
+}
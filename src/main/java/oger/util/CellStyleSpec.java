@@ -0,0 +1,240 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.util.Objects;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 单元格样式描述
+ * 不可变，按属性比较相等；同一 workbook 中属性相同的描述只会创建一个 CellStyle，见 {@link StyleRegistry}
+ */
+public final class CellStyleSpec {
+
+    private final HorizontalAlignment alignment;
+    private final VerticalAlignment verticalAlignment;
+    private final boolean wrapText;
+    private final BorderStyle border;
+    private final short fillColor;
+    private final boolean bold;
+    private final short fontHeightInPoints;
+    private final short fontColor;
+    private final String dataFormat;
+
+    private CellStyleSpec(Builder builder) {
+        this.alignment = builder.alignment;
+        this.verticalAlignment = builder.verticalAlignment;
+        this.wrapText = builder.wrapText;
+        this.border = builder.border;
+        this.fillColor = builder.fillColor;
+        this.bold = builder.bold;
+        this.fontHeightInPoints = builder.fontHeightInPoints;
+        this.fontColor = builder.fontColor;
+        this.dataFormat = builder.dataFormat;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 以当前描述为基础修改
+     *
+     * @return
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.alignment = alignment;
+        builder.verticalAlignment = verticalAlignment;
+        builder.wrapText = wrapText;
+        builder.border = border;
+        builder.fillColor = fillColor;
+        builder.bold = bold;
+        builder.fontHeightInPoints = fontHeightInPoints;
+        builder.fontColor = fontColor;
+        builder.dataFormat = dataFormat;
+        return builder;
+    }
+
+    /**
+     * 是否需要单独的字体
+     *
+     * @return
+     */
+    boolean hasFont() {
+        return bold || fontHeightInPoints > 0 || fontColor >= 0;
+    }
+
+    /**
+     * 字体的缓存键
+     *
+     * @return
+     */
+    String fontKey() {
+        return bold + "|" + fontHeightInPoints + "|" + fontColor;
+    }
+
+    /**
+     * 在 workbook 中创建字体
+     *
+     * @param workbook
+     * @return
+     */
+    Font createFont(Workbook workbook) {
+        Font font = workbook.createFont();
+        font.setBold(bold);
+        if (fontHeightInPoints > 0) {
+            font.setFontHeightInPoints(fontHeightInPoints);
+        }
+        if (fontColor >= 0) {
+            font.setColor(fontColor);
+        }
+        return font;
+    }
+
+    /**
+     * 在 workbook 中创建样式
+     *
+     * @param workbook
+     * @param font     为 null 时使用默认字体
+     * @return
+     */
+    CellStyle createCellStyle(Workbook workbook, Font font) {
+        CellStyle style = workbook.createCellStyle();
+        if (alignment != null) {
+            style.setAlignment(alignment);
+        }
+        if (verticalAlignment != null) {
+            style.setVerticalAlignment(verticalAlignment);
+        }
+        style.setWrapText(wrapText);
+        if (border != null) {
+            style.setBorderBottom(border);
+            style.setBorderLeft(border);
+            style.setBorderRight(border);
+            style.setBorderTop(border);
+        }
+        if (fillColor >= 0) {
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            style.setFillForegroundColor(fillColor);
+        }
+        if (font != null) {
+            style.setFont(font);
+        }
+        if (dataFormat != null) {
+            style.setDataFormat(workbook.createDataFormat().getFormat(dataFormat));
+        }
+        return style;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CellStyleSpec)) {
+            return false;
+        }
+        CellStyleSpec that = (CellStyleSpec) o;
+        return wrapText == that.wrapText && fillColor == that.fillColor && bold == that.bold
+                && fontHeightInPoints == that.fontHeightInPoints && fontColor == that.fontColor
+                && alignment == that.alignment && verticalAlignment == that.verticalAlignment
+                && border == that.border && Objects.equals(dataFormat, that.dataFormat);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(alignment, verticalAlignment, wrapText, border, fillColor, bold, fontHeightInPoints, fontColor, dataFormat);
+    }
+
+    public static class Builder {
+        private HorizontalAlignment alignment;
+        private VerticalAlignment verticalAlignment;
+        private boolean wrapText;
+        private BorderStyle border;
+        private short fillColor = -1;
+        private boolean bold;
+        private short fontHeightInPoints = -1;
+        private short fontColor = -1;
+        private String dataFormat;
+
+        /**
+         * 左右、上下居中
+         *
+         * @return
+         */
+        public Builder center() {
+            this.alignment = HorizontalAlignment.CENTER;
+            this.verticalAlignment = VerticalAlignment.CENTER;
+            return this;
+        }
+
+        public Builder alignment(HorizontalAlignment alignment) {
+            this.alignment = alignment;
+            return this;
+        }
+
+        public Builder verticalAlignment(VerticalAlignment verticalAlignment) {
+            this.verticalAlignment = verticalAlignment;
+            return this;
+        }
+
+        public Builder wrapText(boolean wrapText) {
+            this.wrapText = wrapText;
+            return this;
+        }
+
+        /**
+         * 四周边框
+         *
+         * @param border
+         * @return
+         */
+        public Builder border(BorderStyle border) {
+            this.border = border;
+            return this;
+        }
+
+        /**
+         * 纯色填充
+         *
+         * @param color IndexedColors 的下标
+         * @return
+         */
+        public Builder fillColor(short color) {
+            this.fillColor = color;
+            return this;
+        }
+
+        public Builder bold(boolean bold) {
+            this.bold = bold;
+            return this;
+        }
+
+        public Builder fontHeightInPoints(int height) {
+            this.fontHeightInPoints = (short) height;
+            return this;
+        }
+
+        public Builder fontColor(short color) {
+            this.fontColor = color;
+            return this;
+        }
+
+        /**
+         * Excel 数字格式，如 0.00、yyyy-mm-dd
+         *
+         * @param dataFormat
+         * @return
+         */
+        public Builder dataFormat(String dataFormat) {
+            this.dataFormat = dataFormat;
+            return this;
+        }
+
+        public CellStyleSpec build() {
+            return new CellStyleSpec(this);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Arrays;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 自动列宽策略
+ * EXACT 统计全部行的最大宽度；SAMPLED 只统计前 N 行；PERCENTILE 取前 N 行宽度的百分位，避免个别超长值撑宽整列；FIXED 不统计，固定宽度
+ * 宽度单位为字符数，按 {@link DisplayWidth} 估算，结果限制在 [MIN_WIDTH, MAX_WIDTH] 之间
+ */
+public final class ColumnWidthStrategy {
+
+    public static final int MIN_WIDTH = 10;    // 最小列宽
+    public static final int MAX_WIDTH = 255;   // Excel 允许的最大列宽
+
+    public enum Mode {
+        EXACT, SAMPLED, PERCENTILE, FIXED
+    }
+
+    public static final ColumnWidthStrategy EXACT = new ColumnWidthStrategy(Mode.EXACT, Integer.MAX_VALUE, 1, MIN_WIDTH);
+
+    private final Mode mode;
+    private final int sampleRows;
+    private final double percentile;
+    private final int fixedWidth;
+
+    private ColumnWidthStrategy(Mode mode, int sampleRows, double percentile, int fixedWidth) {
+        this.mode = mode;
+        this.sampleRows = sampleRows;
+        this.percentile = percentile;
+        this.fixedWidth = fixedWidth;
+    }
+
+    /**
+     * 统计全部行
+     *
+     * @return
+     */
+    public static ColumnWidthStrategy exact() {
+        return EXACT;
+    }
+
+    /**
+     * 只统计前 sampleRows 行
+     *
+     * @param sampleRows
+     * @return
+     */
+    public static ColumnWidthStrategy sampled(int sampleRows) {
+        if (sampleRows <= 0) {
+            throw new IllegalArgumentException("sampleRows 必须大于0");
+        }
+        return new ColumnWidthStrategy(Mode.SAMPLED, sampleRows, 1, MIN_WIDTH);
+    }
+
+    /**
+     * 取前 sampleRows 行宽度的百分位
+     *
+     * @param percentile 如 0.95
+     * @param sampleRows
+     * @return
+     */
+    public static ColumnWidthStrategy percentile(double percentile, int sampleRows) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile 必须在 (0, 1] 之间");
+        }
+        if (sampleRows <= 0) {
+            throw new IllegalArgumentException("sampleRows 必须大于0");
+        }
+        return new ColumnWidthStrategy(Mode.PERCENTILE, sampleRows, percentile, MIN_WIDTH);
+    }
+
+    /**
+     * 固定列宽，不统计
+     *
+     * @param width 字符数
+     * @return
+     */
+    public static ColumnWidthStrategy fixed(int width) {
+        return new ColumnWidthStrategy(Mode.FIXED, 0, 1, clamp(width));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 单个文本(如表头)对应的列宽
+     *
+     * @param text
+     * @return 字符数
+     */
+    public int width(String text) {
+        return mode == Mode.FIXED ? fixedWidth : clamp(DisplayWidth.of(text));
+    }
+
+    /**
+     * 为一张表创建列宽统计
+     *
+     * @param columns 列数
+     * @return
+     */
+    public Tracker newTracker(int columns) {
+        return new Tracker(columns);
+    }
+
+    private static int clamp(int width) {
+        return width < MIN_WIDTH ? MIN_WIDTH : width > MAX_WIDTH ? MAX_WIDTH : width;
+    }
+
+    /**
+     * 一张表的列宽统计，非线程安全
+     */
+    public final class Tracker {
+        private final int[] widths;
+        private final int[][] samples;
+        private int rows;
+
+        private Tracker(int columns) {
+            this.widths = new int[columns];
+            this.samples = mode == Mode.PERCENTILE ? new int[columns][] : null;
+        }
+
+        /**
+         * 当前行是否需要统计宽度，不需要时调用方可以跳过宽度计算
+         *
+         * @return
+         */
+        public boolean isMeasuring() {
+            return rows < sampleRows;
+        }
+
+        /**
+         * 记录当前行某一列的宽度
+         *
+         * @param column
+         * @param width
+         */
+        public void add(int column, int width) {
+            if (samples != null) {
+                if (samples[column] == null) {
+                    samples[column] = new int[Math.min(sampleRows, 1024)];
+                } else if (rows >= samples[column].length) {
+                    samples[column] = Arrays.copyOf(samples[column], Math.min(sampleRows, samples[column].length * 2));
+                }
+                samples[column][rows] = width;
+            }
+            if (width > widths[column]) {
+                widths[column] = width;
+            }
+        }
+
+        /**
+         * 当前行结束
+         */
+        public void endRow() {
+            rows++;
+        }
+
+        /**
+         * 统计结果对应的列宽
+         *
+         * @param column
+         * @return 字符数
+         */
+        public int getWidth(int column) {
+            if (mode == Mode.FIXED) {
+                return fixedWidth;
+            }
+            if (samples != null && samples[column] != null) {
+                int n = Math.min(rows, sampleRows);
+                int[] sorted = Arrays.copyOf(samples[column], n);
+                Arrays.sort(sorted);
+                return clamp(sorted[Math.max(0, (int) Math.ceil(percentile * n) - 1)]);
+            }
+            return clamp(widths[column]);
+        }
+
+        /**
+         * 设置列宽
+         *
+         * @param sheet
+         */
+        public void apply(Sheet sheet) {
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, getWidth(i) * 256);
+            }
+        }
+    }
+}
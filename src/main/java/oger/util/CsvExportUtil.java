@@ -0,0 +1,265 @@
+package oger.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.*;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: CSV/TSV 导出工具类
+ * 与 ExcelExportUtil 使用相同的 headMap / 二级、多级表头定义和数据集，多级表头按列展开为一行(如 学生成绩-成绩-语文)；
+ * 不创建 POI 对象，逐行取值后直接写入带缓冲的输出流或 NIO 通道，百万行导出的耗时取决于 I/O
+ */
+public class CsvExportUtil {
+
+    private static Logger logger = LoggerFactory.getLogger(CsvExportUtil.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char BOM = '\uFEFF';
+    private static final double MAX_EXACT_LONG = 1e15;
+
+    /**
+     * 快捷导出csv: 带 BOM，可直接用 Excel 打开
+     *
+     * @param fileName 不含后缀的文件名
+     * @param headMap  字段名 -> 表头名称，要求是LinkedHashMap类型
+     * @param dataset
+     * @param response
+     */
+    public static void exportCsv(String fileName, Map<String, String> headMap, Collection<?> dataset, HttpServletResponse response) {
+        exportCsv(fileName, ExcelLayout.ofHead(headMap), dataset.iterator(), CsvFormat.EXCEL, response);
+    }
+
+    /**
+     * 导出csv/tsv: 按表头布局，数据按需拉取
+     *
+     * @param fileName 不含后缀的文件名，后缀由 format 决定
+     * @param layout   ExcelLayout.ofHead / of2LevelHead / ofMultiLevelHead
+     * @param rows
+     * @param format   CsvFormat.CSV / TSV / EXCEL
+     * @param response
+     */
+    public static void exportCsv(String fileName, ExcelLayout layout, Iterator<?> rows, CsvFormat format, HttpServletResponse response) {
+        try {
+            ExcelExportUtil.setResponseHeader(fileName + format.getFileSuffix(), format.getContentType(), response);
+            OutputStream out = response.getOutputStream();
+            writeCsv(layout, rows, format, out);
+            out.close();
+        } catch (IOException e) {
+            logger.error("导出文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+    }
+
+    /**
+     * 写入输出流：单行表头，输出流由调用方关闭
+     *
+     * @param headMap
+     * @param rows
+     * @param format
+     * @param out
+     * @return 写入的数据行数
+     */
+    public static long writeCsv(Map<String, String> headMap, Iterator<?> rows, CsvFormat format, OutputStream out) {
+        return writeCsv(ExcelLayout.ofHead(headMap), rows, format, out);
+    }
+
+    /**
+     * 写入 NIO 通道，如 FileChannel、SocketChannel；通道由调用方关闭
+     *
+     * @param layout
+     * @param rows
+     * @param format
+     * @param channel
+     * @return 写入的数据行数
+     */
+    public static long writeCsv(ExcelLayout layout, Iterator<?> rows, CsvFormat format, WritableByteChannel channel) {
+        return writeCsv(layout, rows, format, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * 写入输出流：按表头布局，输出流由调用方关闭
+     *
+     * @param layout
+     * @param rows
+     * @param format
+     * @param out
+     * @return 写入的数据行数
+     */
+    public static long writeCsv(ExcelLayout layout, Iterator<?> rows, CsvFormat format, OutputStream out) {
+        if (layout.fieldNames() == null) {
+            throw new IllegalArgumentException("对象表格布局不能导出为csv");
+        }
+        return writeCsv(getHeadNames(layout, format.getHeadSeparator()), layout.fieldNames(), rows, format, out);
+    }
+
+    /**
+     * 写入输出流：表头名称与字段名一一对应，输出流由调用方关闭
+     *
+     * @param headNames
+     * @param fieldNames
+     * @param rows
+     * @param format
+     * @param out
+     * @return 写入的数据行数
+     */
+    public static long writeCsv(String[] headNames, String[] fieldNames, Iterator<?> rows, CsvFormat format, OutputStream out) {
+        // 不关闭 writer，只刷新，避免关闭调用方的输出流
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        DateFormatter dateFormatter = DateFormatter.cached(format.getDatePattern());
+        DateFormatter dateTimeFormatter = DateFormatter.cached(format.getDateTimePattern());
+        char delimiter = format.getDelimiter();
+        String lineSeparator = format.getLineSeparator();
+        long count = 0;
+        try {
+            if (format.isBom()) {
+                writer.write(BOM);
+            }
+            for (int i = 0; i < headNames.length; i++) {
+                if (i > 0) {
+                    writer.write(delimiter);
+                }
+                writeText(writer, headNames[i], delimiter);
+            }
+            writer.write(lineSeparator);
+            Class<?> rowClass = null;
+            PropertyAccessor[] accessors = null;
+            Object rowData;
+            while (rows.hasNext()) {
+                rowData = rows.next();
+                if (rowData.getClass() != rowClass) {
+                    rowClass = rowData.getClass();
+                    accessors = PropertyAccessor.of(rowClass, fieldNames);
+                }
+                for (int i = 0; i < fieldNames.length; i++) {
+                    if (i > 0) {
+                        writer.write(delimiter);
+                    }
+                    if (accessors[i].isPresent()) {
+                        writeValue(writer, ExcelExportUtil.getValue(accessors[i], rowData), delimiter, dateFormatter, dateTimeFormatter);
+                    } else {
+                        // 没有对应字段时按常量输出
+                        writeText(writer, fieldNames[i], delimiter);
+                    }
+                }
+                writer.write(lineSeparator);
+                count++;
+            }
+            writer.flush();
+            return count;
+        } catch (IOException e) {
+            logger.error("导出文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+    }
+
+    /**
+     * 多级表头展开为一行：每列自上而下连接各级名称，纵向合并的同名单元格只取一次
+     *
+     * @param layout
+     * @param separator 各级名称之间的连接符
+     * @return 与表体字段一一对应的列名
+     */
+    public static String[] getHeadNames(ExcelLayout layout, String separator) {
+        String[] fieldNames = layout.fieldNames();
+        String[] headNames = new String[fieldNames.length];
+        StringBuilder sb = new StringBuilder();
+        for (int col = 0; col < headNames.length; col++) {
+            sb.setLength(0);
+            for (int i = 0; i < layout.getRowCount(); i++) {
+                for (ExcelLayout.Segment segment : layout.getRow(i)) {
+                    if (col >= segment.col && col < segment.col + segment.span) {
+                        if (!segment.isCovered() && segment.text != null) {
+                            if (sb.length() > 0) {
+                                sb.append(separator);
+                            }
+                            sb.append(segment.text);
+                        }
+                        break;
+                    }
+                }
+            }
+            headNames[col] = sb.toString();
+        }
+        return headNames;
+    }
+
+    private static void writeValue(Writer writer, Object value, char delimiter,
+                                   DateFormatter dateFormatter, DateFormatter dateTimeFormatter) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String) {
+            writeText(writer, (String) value, delimiter);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writer.write(Long.toString(((Number) value).longValue()));
+        } else if (value instanceof Double || value instanceof Float) {
+            writer.write(formatDouble(((Number) value).doubleValue()));
+        } else if (value instanceof BigDecimal) {
+            writer.write(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+        } else if (value instanceof Date || value instanceof Calendar || value instanceof LocalDate) {
+            writer.write(dateFormatter.format(value));
+        } else if (value instanceof LocalDateTime || value instanceof ZonedDateTime
+                || value instanceof OffsetDateTime || value instanceof Instant) {
+            writer.write(dateTimeFormatter.format(value));
+        } else {
+            writeText(writer, value.toString(), delimiter);
+        }
+    }
+
+    /**
+     * 整数值不带小数位，其余不使用科学计数法
+     */
+    private static String formatDouble(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < MAX_EXACT_LONG) {
+            return Long.toString((long) value);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return Double.toString(value);
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 写入文本：含分隔符、引号、换行时整体加引号，引号双写
+     */
+    private static void writeText(Writer writer, String text, char delimiter) throws IOException {
+        int length = text.length();
+        boolean quote = false;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '"') {
+                writer.write(text, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(text, start, length - start);
+        writer.write('"');
+    }
+}
@@ -0,0 +1,149 @@
+package oger.util;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: CSV/TSV 输出格式
+ * 不可变，with 方法返回新实例；CSV 按 RFC 4180 以 \r\n 换行，字段含分隔符、引号或换行时加引号，引号双写
+ */
+public final class CsvFormat {
+
+    public static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd";
+    public static final String DEFAULT_DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * 标准 CSV：逗号分隔，UTF-8 无 BOM，适合程序读取
+     */
+    public static final CsvFormat CSV = new CsvFormat(',', false, "\r\n", DEFAULT_DATE_PATTERN, DEFAULT_DATE_TIME_PATTERN, "-");
+
+    /**
+     * TSV：制表符分隔
+     */
+    public static final CsvFormat TSV = CSV.withDelimiter('\t');
+
+    /**
+     * 供 Excel 直接打开的 CSV：带 UTF-8 BOM，否则 Excel 按本地编码打开中文会乱码
+     */
+    public static final CsvFormat EXCEL = CSV.withBom(true);
+
+    private final char delimiter;
+    private final boolean bom;
+    private final String lineSeparator;
+    private final String datePattern;
+    private final String dateTimePattern;
+    private final String headSeparator;
+
+    private CsvFormat(char delimiter, boolean bom, String lineSeparator, String datePattern, String dateTimePattern, String headSeparator) {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("不能使用的分隔符：" + delimiter);
+        }
+        this.delimiter = delimiter;
+        this.bom = bom;
+        this.lineSeparator = lineSeparator;
+        this.datePattern = datePattern;
+        this.dateTimePattern = dateTimePattern;
+        this.headSeparator = headSeparator;
+    }
+
+    /**
+     * 分隔符
+     *
+     * @param delimiter
+     * @return
+     */
+    public CsvFormat withDelimiter(char delimiter) {
+        return new CsvFormat(delimiter, bom, lineSeparator, datePattern, dateTimePattern, headSeparator);
+    }
+
+    /**
+     * 是否在文件开头写入 UTF-8 BOM
+     *
+     * @param bom
+     * @return
+     */
+    public CsvFormat withBom(boolean bom) {
+        return new CsvFormat(delimiter, bom, lineSeparator, datePattern, dateTimePattern, headSeparator);
+    }
+
+    /**
+     * 换行符，默认 \r\n
+     *
+     * @param lineSeparator
+     * @return
+     */
+    public CsvFormat withLineSeparator(String lineSeparator) {
+        return new CsvFormat(delimiter, bom, lineSeparator, datePattern, dateTimePattern, headSeparator);
+    }
+
+    /**
+     * 日期(Date、Calendar、LocalDate)格式
+     *
+     * @param datePattern
+     * @return
+     */
+    public CsvFormat withDatePattern(String datePattern) {
+        return new CsvFormat(delimiter, bom, lineSeparator, datePattern, dateTimePattern, headSeparator);
+    }
+
+    /**
+     * 日期时间(LocalDateTime、ZonedDateTime、OffsetDateTime、Instant)格式
+     *
+     * @param dateTimePattern
+     * @return
+     */
+    public CsvFormat withDateTimePattern(String dateTimePattern) {
+        return new CsvFormat(delimiter, bom, lineSeparator, datePattern, dateTimePattern, headSeparator);
+    }
+
+    /**
+     * 多级表头展开为一行时各级名称之间的连接符，默认 -
+     *
+     * @param headSeparator
+     * @return
+     */
+    public CsvFormat withHeadSeparator(String headSeparator) {
+        return new CsvFormat(delimiter, bom, lineSeparator, datePattern, dateTimePattern, headSeparator);
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public boolean isBom() {
+        return bom;
+    }
+
+    public String getLineSeparator() {
+        return lineSeparator;
+    }
+
+    public String getDatePattern() {
+        return datePattern;
+    }
+
+    public String getDateTimePattern() {
+        return dateTimePattern;
+    }
+
+    public String getHeadSeparator() {
+        return headSeparator;
+    }
+
+    /**
+     * 文件后缀
+     *
+     * @return 制表符分隔为 .tsv，其余为 .csv
+     */
+    public String getFileSuffix() {
+        return delimiter == '\t' ? ".tsv" : ".csv";
+    }
+
+    /**
+     * 响应的 Content-Type
+     *
+     * @return
+     */
+    public String getContentType() {
+        return delimiter == '\t' ? "text/tab-separated-values;charset=utf-8" : "text/csv;charset=utf-8";
+    }
+}
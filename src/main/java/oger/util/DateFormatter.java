@@ -0,0 +1,144 @@
+package oger.util;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 线程安全的日期格式化
+ * 基于不可变的 DateTimeFormatter，可在多个导出之间共享；
+ * 带缓存的实例会记住最近格式化过的值(无锁、定长)，同一天在一次导出中只格式化一次
+ */
+public final class DateFormatter {
+
+    private static final int DEFAULT_CACHE_SIZE = 512;
+
+    private final String pattern;
+    private final DateTimeFormatter formatter;
+    private final ZoneId zone;
+    private final AtomicReferenceArray<Entry> cache;
+
+    private DateFormatter(String pattern, ZoneId zone, int cacheSize) {
+        this.pattern = pattern;
+        this.formatter = DateTimeFormatter.ofPattern(pattern).withZone(zone);
+        this.zone = zone;
+        this.cache = cacheSize > 0 ? new AtomicReferenceArray<>(Integer.highestOneBit(cacheSize - 1) << 1) : null;
+    }
+
+    /**
+     * 不带缓存的格式化器，可作为全局常量
+     *
+     * @param pattern
+     * @return
+     */
+    public static DateFormatter of(String pattern) {
+        return new DateFormatter(pattern, ZoneId.systemDefault(), 0);
+    }
+
+    /**
+     * 带缓存的格式化器，适合在一次导出中使用
+     *
+     * @param pattern
+     * @return
+     */
+    public static DateFormatter cached(String pattern) {
+        return new DateFormatter(pattern, ZoneId.systemDefault(), DEFAULT_CACHE_SIZE);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 格式化日期
+     *
+     * @param date
+     * @return
+     */
+    public String format(Date date) {
+        return date == null ? null : format(date.getTime(), 0, date);
+    }
+
+    /**
+     * 格式化 Date、Calendar 或 java.time 日期时间
+     *
+     * @param value
+     * @return
+     */
+    public String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date) {
+            return format((Date) value);
+        }
+        if (value instanceof Calendar) {
+            return format(((Calendar) value).getTime());
+        }
+        if (value instanceof LocalDate) {
+            return format(((LocalDate) value).toEpochDay(), 1, value);
+        }
+        if (value instanceof Instant) {
+            return format(((Instant) value).toEpochMilli(), 0, value);
+        }
+        if (value instanceof TemporalAccessor) {
+            return formatter.format((TemporalAccessor) value);
+        }
+        throw new IllegalArgumentException("不支持的日期类型：" + value.getClass().getName());
+    }
+
+    /**
+     * 按当前格式解析日期
+     *
+     * @param text
+     * @return
+     */
+    public Date parse(String text) {
+        TemporalAccessor parsed = formatter.parseBest(text, ZonedDateTime::from, LocalDateTime::from, LocalDate::from);
+        if (parsed instanceof ZonedDateTime) {
+            return Date.from(((ZonedDateTime) parsed).toInstant());
+        }
+        if (parsed instanceof LocalDateTime) {
+            return Date.from(((LocalDateTime) parsed).atZone(zone).toInstant());
+        }
+        return Date.from(((LocalDate) parsed).atStartOfDay(zone).toInstant());
+    }
+
+    private String format(long key, int type, Object value) {
+        if (cache == null) {
+            return doFormat(value);
+        }
+        int index = (int) (key ^ (key >>> 32) ^ (key >>> 17)) & (cache.length() - 1);
+        Entry entry = cache.get(index);
+        if (entry != null && entry.key == key && entry.type == type) {
+            return entry.text;
+        }
+        String text = doFormat(value);
+        cache.lazySet(index, new Entry(key, type, text));
+        return text;
+    }
+
+    private String doFormat(Object value) {
+        if (value instanceof Date) {
+            return formatter.format(Instant.ofEpochMilli(((Date) value).getTime()));
+        }
+        return formatter.format((TemporalAccessor) value);
+    }
+
+    private static final class Entry {
+        private final long key;
+        private final int type;
+        private final String text;
+
+        private Entry(long key, int type, String text) {
+            this.key = key;
+            this.type = type;
+            this.text = text;
+        }
+    }
+}
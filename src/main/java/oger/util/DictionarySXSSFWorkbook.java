@@ -0,0 +1,231 @@
+package oger.util;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.*;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 支持字典编码字符串的流式workbook
+ * 字典列(StringDictionary)的每个不同值只加入一次共享字符串表，单元格的值是带下标的 SharedString，行刷到临时文件时直接写入下标，不再按文本查找；
+ * 其余字符串仍按 SXSSF 默认方式内联写入，共享字符串表只包含低基数的值，不随行数增长；
+ * 输出 zip 的压缩级别可设置(ExportProfile)，临时文件按 setCompressTempFiles 的设置决定是否 gzip 压缩；
+ * 多个sheet时各sheet和共享字符串表在导出配置(ExportProfile)的线程池中并行压缩(ParallelPackageWriter)
+ */
+public class DictionarySXSSFWorkbook extends SXSSFWorkbook {
+
+    private final Map<String, SharedString> sharedStrings = new ConcurrentHashMap<>();
+    private final Map<Sheet, BitSet> dictionaryColumns = new ConcurrentHashMap<>();
+    private volatile int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * 不启用 SXSSF 的共享字符串表：除字典值外字符串内联写入，各sheet可以并行填充
+     *
+     * @param rowAccessWindowSize
+     */
+    public DictionarySXSSFWorkbook(int rowAccessWindowSize) {
+        super(null, rowAccessWindowSize, false, false);
+    }
+
+    /**
+     * 以已有的 xlsx(如模板)为基础：已有的行保留在 XSSF 中，之后新建的行流式写出
+     *
+     * @param workbook
+     * @param rowAccessWindowSize
+     */
+    public DictionarySXSSFWorkbook(XSSFWorkbook workbook, int rowAccessWindowSize) {
+        super(workbook, rowAccessWindowSize, false, false);
+    }
+
+    /**
+     * 把值加入共享字符串表，已存在时直接返回；并行填充sheet时共享字符串表由各线程共用，加入时加锁
+     *
+     * @param value
+     * @return 带共享字符串下标的值，作为单元格的值写入
+     */
+    SharedString addSharedString(String value) {
+        SharedString shared = sharedStrings.get(value);
+        if (shared == null) {
+            synchronized (sharedStrings) {
+                shared = sharedStrings.get(value);
+                if (shared == null) {
+                    int index = getXSSFWorkbook().getSharedStringSource().addSharedStringItem(new XSSFRichTextString(value));
+                    shared = new SharedString(value, index);
+                    sharedStrings.put(value, shared);
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * 登记sheet中的字典列，刷盘时只在这些列中取共享字符串下标；由填充该sheet的线程调用
+     *
+     * @param sheet
+     * @param columnIndex
+     */
+    void addDictionaryColumn(Sheet sheet, int columnIndex) {
+        getDictionaryColumns(sheet).set(columnIndex);
+    }
+
+    /**
+     * 取消登记：该列停止编码后，未刷盘的字典值按普通文本内联写入
+     *
+     * @param sheet
+     * @param columnIndex
+     */
+    void removeDictionaryColumn(Sheet sheet, int columnIndex) {
+        getDictionaryColumns(sheet).clear(columnIndex);
+    }
+
+    private BitSet getDictionaryColumns(Sheet sheet) {
+        return dictionaryColumns.computeIfAbsent(sheet, key -> new BitSet());
+    }
+
+    /**
+     * 输出 zip 的压缩级别，write 之前设置
+     *
+     * @param compressionLevel Deflater.NO_COMPRESSION(0) ~ BEST_COMPRESSION(9)，或 DEFAULT_COMPRESSION(-1)
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    @Override
+    protected void injectData(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
+        Executor executor = WorkbookContext.of(this).getExportProfile().getPackageExecutor();
+        if (executor == null || getNumberOfSheets() < 2) {
+            super.injectData(zipEntrySource, out);
+            return;
+        }
+        ParallelPackageWriter.write(this, zipEntrySource, createArchiveOutputStream(out), compressionLevel, executor);
+    }
+
+    @Override
+    protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream out) {
+        ZipArchiveOutputStream zos = super.createArchiveOutputStream(out);
+        zos.setLevel(compressionLevel);
+        return zos;
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        return new DictionarySheetDataWriter();
+    }
+
+    /**
+     * 已加入共享字符串表的值，记录下标；同一个值的单元格共用一个实例
+     */
+    static final class SharedString extends XSSFRichTextString {
+
+        private final String value;
+        private final int index;
+
+        private SharedString(String value, int index) {
+            super(value);
+            this.value = value;
+            this.index = index;
+        }
+
+        @Override
+        public String getString() {
+            return value;
+        }
+    }
+
+    /**
+     * 字典值写为共享字符串下标，其余单元格按默认方式写入
+     */
+    private class DictionarySheetDataWriter extends SheetDataWriter {
+
+        // compressed、out 由父类构造方法中的 createTempFile、createWriter 赋值，不能有初始值，否则会在父类构造之后被覆盖
+        private boolean compressed;
+        private Writer out;
+        private int rownum;
+        private BitSet columns;   // 所属sheet的字典列，写第一行时取得
+
+        DictionarySheetDataWriter() throws IOException {
+            super();
+        }
+
+        @Override
+        public File createTempFile() throws IOException {
+            // 与 POI 的 GZIPSheetDataWriter 相同，创建后不随 setCompressTempFiles 变化
+            compressed = isCompressTempFiles();
+            return compressed ? TempFile.createTempFile("poi-sxssf-sheet-xml", ".gz") : super.createTempFile();
+        }
+
+        @Override
+        protected OutputStream decorateOutputStream(FileOutputStream fos) throws IOException {
+            return compressed ? new GZIPOutputStream(fos) : fos;
+        }
+
+        @Override
+        protected InputStream decorateInputStream(FileInputStream fis) throws IOException {
+            return compressed ? new GZIPInputStream(fis) : fis;
+        }
+
+        @Override
+        public Writer createWriter(File fd) throws IOException {
+            out = super.createWriter(fd);
+            return out;
+        }
+
+        @Override
+        public void writeRow(int rownum, SXSSFRow row) throws IOException {
+            this.rownum = rownum;
+            if (columns == null) {
+                columns = getDictionaryColumns(row.getSheet());
+            }
+            super.writeRow(rownum, row);
+        }
+
+        @Override
+        public void writeCell(int columnIndex, Cell cell) throws IOException {
+            // 字典列的单元格值就是 SharedString，直接取下标
+            RichTextString text = columns.get(columnIndex) && cell != null && cell.getCellType() == CellType.STRING
+                    ? cell.getRichStringCellValue() : null;
+            if (!(text instanceof SharedString)) {
+                super.writeCell(columnIndex, cell);
+                return;
+            }
+            out.write("<c r=\"");
+            out.write(new CellReference(rownum, columnIndex).formatAsString());
+            out.write('"');
+            CellStyle cellStyle = cell.getCellStyle();
+            if (cellStyle.getIndex() != 0) {
+                out.write(" s=\"");
+                out.write(Integer.toString(cellStyle.getIndex() & 0xffff));
+                out.write('"');
+            }
+            out.write(" t=\"s\"><v>");
+            out.write(Integer.toString(((SharedString) text).index));
+            out.write("</v></c>");
+        }
+    }
+}
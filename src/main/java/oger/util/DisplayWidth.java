@@ -0,0 +1,95 @@
+package oger.util;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 估算文本在单元格中的显示宽度(字符数)
+ * 按字符类别计算：中日韩文字、全角符号占 2，其余占 1；多行文本取最长的一行；不分配内存，与服务器默认编码无关
+ */
+public final class DisplayWidth {
+
+    private DisplayWidth() {
+    }
+
+    /**
+     * 文本的显示宽度
+     *
+     * @param text
+     * @return
+     */
+    public static int of(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int max = 0;
+        int width = 0;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                max = Math.max(max, width);
+                width = 0;
+            } else if (c < 0x20) {
+                // 控制字符不占宽度
+            } else if (Character.isHighSurrogate(c)) {
+                // 补充平面字符(扩展汉字、emoji)按全角计算
+                width += 2;
+                if (i + 1 < len && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    i++;
+                }
+            } else {
+                width += isWide(c) ? 2 : 1;
+            }
+        }
+        return Math.max(max, width);
+    }
+
+    /**
+     * 数字按常规格式显示的宽度
+     *
+     * @param value
+     * @return
+     */
+    public static int of(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return of((long) value);
+        }
+        return Double.toString(value).length();
+    }
+
+    /**
+     * 整数的显示宽度
+     *
+     * @param value
+     * @return
+     */
+    public static int of(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int width = value < 0 ? 2 : 1;
+        for (long v = Math.abs(value); v >= 10; v /= 10) {
+            width++;
+        }
+        return width;
+    }
+
+    /**
+     * 是否全角字符
+     *
+     * @param c
+     * @return
+     */
+    public static boolean isWide(char c) {
+        return c >= 0x1100 && (c <= 0x115F                   // 谚文字母
+                || c >= 0x2E80 && c <= 0x303E                // 中日韩部首、标点
+                || c >= 0x3041 && c <= 0x33FF                // 假名、注音、中日韩兼容字符
+                || c >= 0x3400 && c <= 0x4DBF                // 扩展A
+                || c >= 0x4E00 && c <= 0x9FFF                // 中日韩统一表意文字
+                || c >= 0xA000 && c <= 0xA4CF                // 彝文
+                || c >= 0xAC00 && c <= 0xD7A3                // 谚文音节
+                || c >= 0xF900 && c <= 0xFAFF                // 兼容表意文字
+                || c >= 0xFE30 && c <= 0xFE4F                // 兼容形式
+                || c >= 0xFF00 && c <= 0xFF60                // 全角字符
+                || c >= 0xFFE0 && c <= 0xFFE6);              // 全角符号
+    }
+}
@@ -0,0 +1,38 @@
+package oger.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出列
+ * 编译时由 oger.processor.ExcelColumnProcessor 为实体类生成 XxxRowWriter，导出时直接调用 getter，不使用反射；
+ * 通过 RowWriters.of(Xxx.class) 获取，配合 ExcelExportUtil.createTable(line, writer, rows, sheet, workbook) 使用
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.CLASS)
+public @interface ExcelColumn {
+
+    /**
+     * 列顺序，越小越靠前；相同时按字段声明顺序
+     */
+    int order() default Integer.MAX_VALUE;
+
+    /**
+     * 表头名称，为空时取 @ApiModelProperty 的 value，再为空时取字段名
+     */
+    String header() default "";
+
+    /**
+     * 日期字段为 java 日期格式，如 yyyy-MM-dd；数值字段为 Excel 数字格式，如 0.00；为空时使用默认格式
+     */
+    String format() default "";
+
+    /**
+     * 列宽(字符数)，0 为按列宽策略自动计算
+     */
+    int width() default 0;
+}
@@ -1,21 +1,31 @@
 package oger.util;
 
-import org.apache.commons.codec.binary.StringUtils;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFFont;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.io.OutputStream;
+import java.io.*;
 import java.net.URLEncoder;
-import java.text.SimpleDateFormat;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * @Auther: Oger
@@ -35,46 +45,64 @@ import java.util.*;
  * - 可通过String[] headNames 和 String[] fieldNames 搭配的方式传入你想导出的字段
  * 5. 二级树形表头合并的方式创建表
  * 6. 多级表头合并的方式创建表(兼容二级表头合并的方式)
- * 7. 自动设置列宽
+ * 7. 自动设置列宽(ColumnWidthStrategy：全量、抽样、百分位、固定，按字符类别估算宽度)
  * 8. 无集合属性字段的简单对象表格导出
  * 9. 有集合属性字段的复杂对象表格导出
  * 10. 表格加边框
+ * 11. 流式导出xlsx(SXSSF)：按行窗口刷盘，内存占用与数据量无关
+ * 12. 数值、日期、布尔按原生类型写入单元格，可通过 WorkbookContext 按列注册转换器
+ * 13. 日期格式线程安全，可按导出(WorkbookContext#setDatePattern)或按列(CellConverter#date)配置
+ * 14. 样式按workbook注册复用，同一样式只创建一次；自定义样式按属性去重(getCellStyle)
+ * 15. 表体支持 Iterator、Stream、分页查询(RowSources)按需拉取数据
+ * 16. 异步导出(ExportJobService)：生成到临时文件，按任务ID下载，见 exportExcel(Workbook, OutputStream)
+ * 17. 边生成边输出(streamExcel)：立即提交响应头，客户端读取慢时溢出到临时文件，不占用大块堆内存
+ * 18. 多sheet并行生成(createSheets)：流式workbook的各sheet并行填充，按指定顺序组装
+ * 19. 流水线写表体(createTableBody(..., Executor))：取值和格式化并行，单线程按顺序写单元格
+ * 20. 合并单元格一次规划、批量加入(MergePlanner)，大量合并时不再逐个与已有区域比较
+ * 21. 表头、对象表格定义可编译为 ExcelLayout 并按key缓存，每次导出只写数据
+ * 22. 实体类字段加 @ExcelColumn 后编译时生成 XxxRowWriter，导出不使用反射；headMap 方式保留为动态方式
+ * 23. 各阶段耗时、行数、字节数按 workbook 累计，closeWorkbook 时发布到 Micrometer(ExportMetrics)
+ * 24. 低基数文本列(科目、班级、状态等)按字典编码，每个不同值只写入共享字符串表一次(StringDictionary)
+ * 25. xlsx 输出的压缩级别、临时文件是否压缩可按导出选择(ExportProfile)，在 CPU 和传输字节数之间取舍
+ * 26. 多sheet流式xlsx的各sheet在线程池中并行压缩(ParallelPackageWriter)
+ * 27. 按 Excel 模板导出(ExcelTemplate)：${} 填单值、#{} 标出重复行，模板编译一次并缓存，样式和表头直接取自模板
+ * 28. 表体超过sheet行数上限时自动换到新sheet并重复表头(SheetRollover)：快捷导出默认开启，自建workbook通过 WorkbookContext#setMaxRowsPerSheet 开启
  */
 public class ExcelExportUtil {
 
     private static Logger logger = LoggerFactory.getLogger(ExcelExportUtil.class);
-    private static int DEFAULT_COL_WIDTH = 10;   // 默认列宽
-    public static SimpleDateFormat DEFAULT_FORMAT = new SimpleDateFormat("yyyy年MM月dd日");
+    public static final int DEFAULT_ROW_ACCESS_WINDOW = 1000;   // 流式导出默认内存中保留的行数
+    private static final String XLS_CONTENT_TYPE = "application/vnd.ms-excel;charset=utf-8";
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet;charset=utf-8";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int PIPELINE_BATCH_SIZE = 512;   // 流水线写表体时每批转换的行数
+    private static final int PIPELINE_MAX_BATCHES = 8;   // 流水线写表体时在途的最大批次数
+    public static final DateFormatter DEFAULT_FORMAT = DateFormatter.of(CellConverter.DEFAULT_DATE_PATTERN);   // 线程安全，可在并发导出中共享
 
     /**
      * 自定义模式导出excel： 需自己创建workbook
+     * HSSFWorkbook 导出为 .xls，XSSFWorkbook/SXSSFWorkbook 导出为 .xlsx
      *
      * @param fileName
      * @param workbook
      * @param response
      */
-    public static void exportExcel(String fileName, HSSFWorkbook workbook, HttpServletResponse response) {
+    public static void exportExcel(String fileName, Workbook workbook, HttpServletResponse response) {
         OutputStream out = null;
+        // 未设置导出名称时指标按 default 统计，不用文件名(常含日期、ID)作为标签
+        WorkbookContext context = WorkbookContext.of(workbook);
         try {
-            response.setHeader("Access-Control-Expose-Headers", "Content-Disposition");
-            response.setContentType("application/vnd.ms-excel;charset=utf-8");
-            String name = URLEncoder.encode(fileName + ".xls", "UTF-8");
-            response.setHeader("Content-Disposition", "attachment;filename=" + name + ";filename*=UTF-8''" + name);
+            setResponseHeader(fileName + getFileSuffix(workbook), getContentType(workbook), response);
             out = response.getOutputStream();
-            workbook.write(out);
+            write(workbook, out, context.getMetrics());
             out.flush();
         } catch (Exception e) {
+            context.getMetrics().markFailed();
             logger.error("导出文件失败", e);
             //  可替换成自己项目中包装的异常类
             throw new RuntimeException("导出文件失败");
         } finally {
-            try {
-                if (workbook != null) {
-                    workbook.close();
-                }
-            } catch (IOException e) {
-                logger.error("关闭表格流异常", e);
-            }
+            closeWorkbook(workbook);
             try {
                 if (out != null) {
                     out.close();
@@ -87,555 +115,1568 @@ public class ExcelExportUtil {
     }
 
     /**
-     * 快捷导出excel: 有sheet标题 有表标题
+     * 导出excel：按导出配置的压缩级别输出
      *
      * @param fileName
-     * @param sheetName
-     * @param tableName
-     * @param headMap
-     * @param dataset
+     * @param workbook
+     * @param profile  如内网接口用 ExportProfile.LAN，外网接口用 ExportProfile.WAN
      * @param response
      */
-    public static void exportExcel(String fileName, String sheetName, String tableName, Map<String, String> headMap, Collection dataset, HttpServletResponse response) {
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        HSSFSheet sheet = workbook.createSheet(sheetName);
-        int line = createSheetTitle(headMap.size(), sheetName, sheet, workbook);
-        createTable(line, tableName, headMap, dataset, sheet, workbook);
+    public static void exportExcel(String fileName, Workbook workbook, ExportProfile profile, HttpServletResponse response) {
+        WorkbookContext.of(workbook).setExportProfile(profile);
         exportExcel(fileName, workbook, response);
     }
 
     /**
-     * 快捷导出excel: 无sheet标题 无表标题
+     * 自定义模式导出excel：先填充再导出，填充失败(如内存预算不足被拒绝)时同样关闭workbook、删除临时文件
      *
      * @param fileName
-     * @param headMap
-     * @param dataset
+     * @param workbook
+     * @param writer   填充workbook，如 wb -> createTable(0, headMap, dataset, wb.createSheet(fileName), wb)
      * @param response
      */
-    public static void exportExcel(String fileName, Map<String, String> headMap, Collection dataset, HttpServletResponse response) {
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        HSSFSheet sheet = workbook.createSheet(fileName);
-        createTable(0, headMap, dataset, sheet, workbook);
-        exportExcel(fileName, workbook, response);
+    public static <W extends Workbook> void exportExcel(String fileName, W workbook, Consumer<? super W> writer, HttpServletResponse response) {
+        exportExcel(fileName, fillWorkbook(workbook, writer), response);
     }
 
     /**
-     * 快捷导出excel: 二级合并表头 无sheet标题 无表标题
+     * 填充workbook：填充失败时记录失败、关闭workbook并删除临时文件，异常原样抛出
      *
-     * @param fileName
-     * @param dataset
-     * @param response
+     * @param workbook
+     * @param writer
+     * @return 填充好的workbook
      */
-    public static void export2LevelHeadExcel(String fileName, Map<String, Map<String, String>> mergeHeadMap, Collection dataset, HttpServletResponse response) {
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        HSSFSheet sheet = workbook.createSheet(fileName);
-        create2LevelHeadTable(0, mergeHeadMap, dataset, sheet, workbook);
-        exportExcel(fileName, workbook, response);
+    public static <W extends Workbook> W fillWorkbook(W workbook, Consumer<? super W> writer) {
+        try {
+            writer.accept(workbook);
+            return workbook;
+        } catch (RuntimeException | Error e) {
+            WorkbookContext.of(workbook).getMetrics().markFailed();
+            closeWorkbook(workbook);
+            throw e;
+        }
     }
 
     /**
-     * 快捷导出excel: 多级合并表头 无sheet标题 无表标题
+     * 导出excel到输出流：写出后关闭workbook并清理临时文件，输出流由调用方关闭
      *
-     * @param fileName
-     * @param dataset
-     * @param response
+     * @param workbook
+     * @param out
      */
-    public static void exportMultiLevelHeadExcel(String fileName, List<Map<String, Object>> mergeHeads, Collection dataset, HttpServletResponse response) {
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        HSSFSheet sheet = workbook.createSheet(fileName);
-        createMultiLevelHeadTable(0, mergeHeads, dataset, sheet, workbook);
-        exportExcel(fileName, workbook, response);
+    public static void exportExcel(Workbook workbook, OutputStream out) {
+        ExportMetrics metrics = WorkbookContext.of(workbook).getMetrics();
+        try {
+            write(workbook, out, metrics);
+            out.flush();
+        } catch (Exception e) {
+            metrics.markFailed();
+            logger.error("导出文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        } finally {
+            closeWorkbook(workbook);
+        }
     }
 
     /**
-     * 快捷导出excel:无集合属性字段的简单对象快捷导出excel
+     * 序列化workbook，统计耗时和字节数
+     */
+    private static void write(Workbook workbook, OutputStream out, ExportMetrics metrics) throws IOException {
+        if (workbook instanceof DictionarySXSSFWorkbook) {
+            ExportProfile profile = WorkbookContext.of(workbook).getExportProfile();
+            ((DictionarySXSSFWorkbook) workbook).setCompressionLevel(profile.getCompression().getLevel());
+        }
+        long startTime = System.nanoTime();
+        try {
+            OutputStream counting = metrics.countBytes(out);
+            workbook.write(counting);
+            counting.flush();
+        } finally {
+            metrics.addTime(ExportMetrics.Phase.SERIALIZE, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 边生成边输出：先提交响应头，workbook 在导出线程中填充并写入管道，响应线程同时把管道内容转发给客户端
+     * 客户端读取慢时超出内存上限的部分暂存到临时文件，导出线程不会被阻塞，写完即释放workbook；
+     * 导出线程取自有界线程池(ExportExecutors#configureStream)，线程和队列已满时抛出 ExportRejectedException(503)
+     * 注意：xlsx/xls 的文件结构要求 workbook.write 在数据全部填充后才能开始，响应体字节从 write 开始输出，
+     * 填充期间只有响应头；控制器方法直接返回该 StreamingResponseBody
      *
      * @param fileName
-     * @param names
-     * @param t
+     * @param workbook
+     * @param writer   填充workbook，与同步导出中的 createTable 等调用相同
      * @param response
+     * @return
      */
-    public static <T> void exportSimpleObjectExcel(String fileName, List<Map<String, Integer>> names, T t, HttpServletResponse response) {
-        HSSFWorkbook workbook = new HSSFWorkbook();
-        HSSFSheet sheet = workbook.createSheet(fileName);
-        createSimpleObjectTable(0, names, t, sheet, workbook);
-        exportExcel(fileName, workbook, response);
+    public static StreamingResponseBody streamExcel(String fileName, Workbook workbook, Consumer<Workbook> writer, HttpServletResponse response) {
+        return streamExcel(fileName, workbook, writer, SpillingPipe.DEFAULT_MEMORY_LIMIT, response);
     }
 
     /**
-     * 创建表格： 有集合属性字段的复杂对象
+     * 边生成边输出
      *
-     * @param line
-     * @param names：每一行对应一个Map；单元格值为常量时key为此常量,value为合并单元格数量；
-     *             单元格值为变量时key为T的非集合字段名，value为合并单元格数量；
-     *             当该行以下为集合时，key为T的集合字段名，value为集合元素要显示的字段列表
-     * @param t
-     * @param sheet
+     * @param fileName
      * @param workbook
-     * @param <T>
+     * @param writer
+     * @param memoryLimit 内存缓存上限(字节)，超出部分写临时文件
+     * @param response
      * @return
      */
-    public static <T> int createObjectTable(int line, List<Map<String, Object>> names, T t, Sheet sheet, HSSFWorkbook workbook) {
-        int rows = names.size();
-        //计算最大列数
-        Integer cols = names.stream().map(map -> {
-            int sum = 0;
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                Object value = entry.getValue();
-                if (value instanceof Integer) {
-                    sum += (Integer) value;
-                } else if (value instanceof List) {
-                    List<String> fieldNames = (List<String>) value;
-                    sum = fieldNames.size();
-                }
-            }
-            return sum;
-        }).max(Integer::compareTo).get();
-        //创建二维数组
-        String[][] cells = new String[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            cells[i] = new String[cols];
-            Map<String, Object> nameMap = names.get(i);
-            int index = 0;
-            for (Map.Entry<String, Object> entry : nameMap.entrySet()) {
-                if (entry.getValue() instanceof Integer) {
-                    Integer value = (Integer) entry.getValue();
-                    while (value > 0) {
-                        cells[i][index] = entry.getKey();
-                        value--;
-                        index++;
-                    }
+    public static StreamingResponseBody streamExcel(String fileName, Workbook workbook, Consumer<Workbook> writer, int memoryLimit, HttpServletResponse response) {
+        // 未设置导出名称时指标按 default 统计，不用文件名(常含日期、ID)作为标签
+        WorkbookContext context = WorkbookContext.of(workbook);
+        SpillingPipe pipe = new SpillingPipe(memoryLimit);
+        try {
+            // 导出线程在返回响应体之前提交：线程池已满时直接拒绝(503)，不会先提交响应头；导出线程中创建的表格并入请求的内存预留
+            ExportAdmission.propagate(ExportExecutors::executeStream).execute(() -> {
+                try {
+                    OutputStream pipeOut = new BufferedOutputStream(pipe.getOutputStream(), STREAM_BUFFER_SIZE);
+                    writer.accept(workbook);
+                    exportExcel(workbook, pipeOut);
+                    pipeOut.close();
+                } catch (Exception e) {
+                    logger.error("导出文件失败", e);
+                    context.getMetrics().markFailed();
+                    closeWorkbook(workbook);
+                    pipe.fail(e);
                 }
-            }
+            });
+        } catch (ExportRejectedException e) {
+            context.getMetrics().markFailed();
+            closeWorkbook(workbook);
+            throw e;
         }
-        CellStyle tableBodyRangeCellStyle = getTableBodyRangeCellStyle(workbook);
-        CellStyle tableBodyCellStyle = getTableBodyCellStyle(workbook);
-        Row row;
-        //创建表
-        for (int i = 0; i < rows; i++) {
-            row = sheet.createRow(line++);
-            Map<String, Object> nameMap = names.get(i);
-            int index = 0;
-            for (Map.Entry<String, Object> entry : nameMap.entrySet()) {
-                String key = entry.getKey();
-                if (entry.getValue() instanceof Integer) {  //非集合
-                    //创建单元格
-                    Integer value = (Integer) entry.getValue();
-                    int v = 0;
-                    while (v < value) {
-                        row.createCell(index + v).setCellStyle(tableBodyCellStyle);
-                        v++;
-                    }
-                    //赋值
-                    if (i > 0 && StringUtils.equals(cells[i - 1][index], cells[i][index])) {
-                        index += value;
-                        continue;
-                    }
-                    setCellValue(key, t, row.getCell(index), tableBodyCellStyle);
-                    //合并单元格
-                    int lastRow = i;
-                    while (lastRow < rows - 1 && StringUtils.equals(cells[lastRow][index], cells[lastRow + 1][index])) {
-                        lastRow++;
-                    }
-                    if (lastRow > i || value > 1) {
-                        sheet.addMergedRegion(new CellRangeAddress(line - 1, line + lastRow - i - 1, index, index + value - 1));//起始行号，终止行号， 起始列号，终止列号
-                        row.getCell(index).setCellStyle(tableBodyRangeCellStyle);
-                    }
-                    index += value;
-                } else if (entry.getValue() instanceof List) {  //集合
-                    List<String> fieldNames = (List<String>) entry.getValue();
-                    try {
-                        String getMethodName = "get" + key.substring(0, 1).toUpperCase() + key.substring(1);
-                        List dataset = (List) t.getClass().getMethod(getMethodName).invoke(t);
-                        for (int n = 0; n < dataset.size(); n++) {
-                            Object rowData = dataset.get(n);
-                            if (n > 0) {
-                                row = sheet.createRow(line++);
-                            }
-                            for (int m = 0; m < fieldNames.size(); m++) {
-                                setCellValue(fieldNames.get(m), rowData, row.createCell(m), tableBodyCellStyle);
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("导出文件数据失败", e);
-                        //  可替换成自己项目中包装的异常类
-                        throw new RuntimeException("导出文件失败");
-                    }
+        try {
+            setResponseHeader(fileName + getFileSuffix(workbook), getContentType(workbook), response);
+        } catch (IOException e) {
+            // 关闭读取端，导出线程写入时失败并释放workbook
+            IOUtils.closeQuietly(pipe.getInputStream());
+            logger.error("导出文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+        closeWhenAbandoned(pipe);
+        return out -> {
+            // 立即提交响应头，避免代理在生成期间等不到响应
+            out.flush();
+            try (InputStream in = pipe.getInputStream()) {
+                byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
                 }
+                out.flush();
             }
-        }
-        return ++line;
+        };
     }
 
     /**
-     * 创建表格： 无集合属性字段的简单对象
-     *
-     * @param line
-     * @param names：每一行对应一个Map，单元格值为常量时key为此常量,value为合并单元格数量；单元格值为变量时key为T的字段名，value为合并单元格数量
-     * @param t
-     * @param sheet
-     * @param <T>
-     * @return
+     * 响应体可能不被执行(处理器返回后出错、开始转发前客户端断开)，此时由请求的回调关闭管道的读取端：
+     * 导出线程随后写入失败并释放workbook，溢出的临时文件随之删除；
+     * 异步处理结束(完成、超时、出错)时关闭，未能开始异步处理时在请求结束时关闭；读取端已关闭时不做任何事
      */
-    public static <T> int createSimpleObjectTable(int line, List<Map<String, Integer>> names, T t, Sheet sheet, HSSFWorkbook workbook) {
-        int rows = names.size();
-        //计算最大列数
-        Integer cols = names.stream().map(map -> {
-            int sum = 0;
-            for (Map.Entry<String, Integer> entry : map.entrySet()) {
-                sum += entry.getValue();
-            }
-            return sum;
-        }).max(Integer::compareTo).get();
-        //创建二维数组
-        String[][] cells = new String[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            cells[i] = new String[cols];
-            Map<String, Integer> nameMap = names.get(i);
-            int index = 0;
-            for (Map.Entry<String, Integer> entry : nameMap.entrySet()) {
-                Integer value = entry.getValue();
-                while (value > 0) {
-                    cells[i][index] = entry.getKey();
-                    value--;
-                    index++;
-                }
-            }
+    private static void closeWhenAbandoned(SpillingPipe pipe) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
         }
-        CellStyle tableBodyRangeCellStyle = getTableBodyRangeCellStyle(workbook);
-        CellStyle tableBodyCellStyle = getTableBodyCellStyle(workbook);
-        //创建表
-        for (int i = 0; i < rows; i++) {
-            Row row = sheet.createRow(line++);
-            Map<String, Integer> nameMap = names.get(i);
-            int index = 0;
-            for (Map.Entry<String, Integer> entry : nameMap.entrySet()) {
-                //创建单元格
-                Integer value = entry.getValue();
-                int v = 0;
-                while (v < value) {
-                    row.createCell(index + v).setCellStyle(tableBodyCellStyle);
-                    v++;
-                }
-                //赋值
-                if (i > 0 && StringUtils.equals(cells[i - 1][index], cells[i][index])) {
-                    index += value;
-                    continue;
-                }
-                setCellValue(entry.getKey(), t, row.getCell(index), tableBodyCellStyle);
-                //合并单元格
-                int lastRow = i;
-                while (lastRow < rows - 1 && StringUtils.equals(cells[lastRow][index], cells[lastRow + 1][index])) {
-                    lastRow++;
-                }
-                if (lastRow > i || value > 1) {
-                    sheet.addMergedRegion(new CellRangeAddress(line - 1, line + lastRow - i - 1, index, index + value - 1));//起始行号，终止行号， 起始列号，终止列号
-                    row.getCell(index).setCellStyle(tableBodyRangeCellStyle);
-                }
-                index += value;
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        InputStream in = pipe.getInputStream();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(pipe, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                IOUtils.closeQuietly(in);
             }
-        }
-        return ++line;
+        });
+        attributes.registerDestructionCallback(SpillingPipe.class.getName() + "@" + System.identityHashCode(pipe), () -> {
+            if (!request.isAsyncStarted()) {
+                IOUtils.closeQuietly(in);
+            }
+        }, RequestAttributes.SCOPE_REQUEST);
     }
 
     /**
-     * 创建表： 多级表头合并 无表标题  从指定行开始  兼容二级表头合并
+     * 下载已生成的excel文件，如异步导出的结果
      *
-     * @param line
-     * @param mergeHeads： 表头每一行对应一个Map<String,Object>；非底行的key为名称，value为合并单元格数量；底行的key为字段名，value为名称；竖向单元格合并的应在每行Map中都有；Map采用LinkedHashMap
-     * @param dataset
-     * @param sheet
-     * @param workbook
-     * @return
+     * @param fileName 不含后缀的文件名，后缀取自 file
+     * @param file
+     * @param response
      */
-    public static int createMultiLevelHeadTable(int line, List<Map<String, Object>> mergeHeads, Collection dataset, Sheet sheet, HSSFWorkbook workbook) {
-        CellStyle tableHeadCellStyle = getTableHeadRangeCellStyle(workbook);
-        int rows = mergeHeads.size();
-        int cols = mergeHeads.get(rows - 1).size();
-        String[] fieldNames = new String[cols];
-        //创建表头二维数组
-        String[][] cells = new String[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            cells[i] = new String[cols];
-            Map<String, Object> mergeHeadMap = mergeHeads.get(i);
-            int index = 0;
-            for (Map.Entry<String, Object> entry : mergeHeadMap.entrySet()) {
-                if (i < rows - 1) {
-                    Integer value = Integer.valueOf(entry.getValue().toString());
-                    while (value > 0) {
-                        cells[i][index] = entry.getKey();
-                        value--;
-                        index++;
-                    }
-                } else {
-                    cells[i][index] = entry.getValue().toString();
-                    fieldNames[index] = entry.getKey();
-                    index++;
-                }
-            }
-        }
-        //创建表头
-        for (int i = 0; i < rows; i++) {
-            Row row = sheet.createRow(line++);
-            Map<String, Object> mergeHeadMap = mergeHeads.get(i);
-            int index = 0;
-            for (Map.Entry<String, Object> entry : mergeHeadMap.entrySet()) {
-                //创建单元格
-                if (i < rows - 1) {
-                    Integer value = (Integer) entry.getValue();
-                    int v = 0;
-                    while (v < value) {
-                        row.createCell(index + v).setCellStyle(tableHeadCellStyle);
-                        v++;
-                    }
-                } else {
-                    row.createCell(index).setCellStyle(tableHeadCellStyle);
-                }
-                //赋值并合并单元格
-                if (i > 0 && StringUtils.equals(cells[i - 1][index], cells[i][index])) {
-                    index++;
-                    continue;
-                }
-                if (i < rows - 1) {
-                    Integer value = (Integer) entry.getValue();
-                    row.getCell(index).setCellValue(entry.getKey());
-                    int lastRow = i;
-                    while (lastRow < rows - 1 && StringUtils.equals(cells[lastRow][index], cells[lastRow + 1][index])) {
-                        lastRow++;
-                    }
-                    if (lastRow > i || value > 1) {
-                        sheet.addMergedRegion(new CellRangeAddress(line - 1, line + lastRow - i - 1, index, index + value - 1));//起始行号，终止行号， 起始列号，终止列号
-                    }
-                    index += value;
-                } else {
-                    row.getCell(index).setCellValue(entry.getValue().toString());
-                    index++;
-                }
-            }
+    public static void exportFile(String fileName, File file, HttpServletResponse response) {
+        boolean xls = file.getName().endsWith(".xls");
+        try {
+            setResponseHeader(fileName + (xls ? ".xls" : ".xlsx"), xls ? XLS_CONTENT_TYPE : XLSX_CONTENT_TYPE, response);
+            response.setContentLengthLong(file.length());
+            OutputStream out = response.getOutputStream();
+            Files.copy(file.toPath(), out);
+            out.flush();
+        } catch (Exception e) {
+            logger.error("导出文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
         }
-        //创建表体
-        return createTableBody(line, fieldNames, dataset, sheet, workbook);
     }
 
     /**
-     * 创建表： 二级树形表头合并 无表标题  从指定行开始
+     * 下载已生成的excel内容，如缓存的导出结果
      *
-     * @param line
-     * @param mergeHeadMap： 外层Map的key为第一行名称，value为子表头Map；里层Map的key为字段名，value为名称；Map采用LinkedHashMap
-     * @param dataset
-     * @param sheet
-     * @param workbook
-     * @return
+     * @param fileName   不含后缀的文件名
+     * @param fileSuffix .xls 或 .xlsx
+     * @param content
+     * @param response
      */
-    public static int create2LevelHeadTable(int line, Map<String, Map<String, String>> mergeHeadMap, Collection dataset, Sheet sheet, HSSFWorkbook workbook) {
-        Row row1 = sheet.createRow(line);
-        Row row2 = sheet.createRow(line + 1);
-        CellStyle tableHeadCellStyle = getTableHeadRangeCellStyle(workbook);
-        int index = 0;
-        List<String> fieldNames = new ArrayList<>();
-        //创建表头
-        for (Map.Entry<String, Map<String, String>> entry : mergeHeadMap.entrySet()) {
-            //创建单元格
-            String key = entry.getKey();
-            Map<String, String> value = entry.getValue();
-            int v = 0;
-            while (v < value.size()) {
-                row1.createCell(index + v).setCellStyle(tableHeadCellStyle);
-                row2.createCell(index + v).setCellStyle(tableHeadCellStyle);
-                v++;
-            }
-            //赋值并合并单元格
-            if (value.size() < 1) {
-                continue;
-            }
-            row1.getCell(index).setCellValue(key);
-            if (value.size() == 1) {
-                sheet.addMergedRegion(new CellRangeAddress(line, line + 1, index, index));//起始行号，终止行号， 起始列号，终止列号
-                fieldNames.addAll(value.keySet());
-                index++;
-            } else {
-                sheet.addMergedRegion(new CellRangeAddress(line, line, index, index + value.size() - 1));//起始行号，终止行号， 起始列号，终止列号
-                for (Map.Entry<String, String> child : value.entrySet()) {
-                    row2.getCell(index).setCellValue(child.getValue());
-                    fieldNames.add(child.getKey());
-                    index++;
-                }
-            }
+    public static void exportExcel(String fileName, String fileSuffix, byte[] content, HttpServletResponse response) {
+        boolean xls = ".xls".equals(fileSuffix);
+        try {
+            setResponseHeader(fileName + fileSuffix, xls ? XLS_CONTENT_TYPE : XLSX_CONTENT_TYPE, response);
+            response.setContentLength(content.length);
+            OutputStream out = response.getOutputStream();
+            out.write(content);
+            out.flush();
+        } catch (Exception e) {
+            logger.error("导出文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
         }
-        //创建表体
-        return createTableBody(line + 2, fieldNames.stream().toArray(String[]::new), dataset, sheet, workbook);
     }
 
     /**
-     * 创建表： 有表标题 从指定行开始
+     * 关闭workbook：释放导出上下文，删除流式导出产生的临时文件
      *
-     * @param line      起始行
-     * @param tableName
-     * @param headMap   要求是LinkedHashMap类型
-     * @param dataset
-     * @param sheet
      * @param workbook
-     * @return 下一行
      */
-    public static int createTable(int line, String tableName, Map<String, String> headMap, Collection dataset, Sheet sheet, HSSFWorkbook workbook) {
-        String[] fieldNames = new String[headMap.size()];
-        String[] headNames = new String[headMap.size()];
-        int i = 0;
-        for (Map.Entry<String, String> entry : headMap.entrySet()) {
-            fieldNames[i] = entry.getKey();
-            headNames[i] = entry.getValue();
-            i++;
+    public static void closeWorkbook(Workbook workbook) {
+        if (workbook == null) {
+            return;
+        }
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            logger.error("关闭表格流异常", e);
         }
-        line = createTableHead(line, tableName, headNames, sheet, workbook);
-        return createTableBody(line, fieldNames, dataset, sheet, workbook);
+        WorkbookContext.release(workbook);
+        if (workbook instanceof SXSSFWorkbook) {
+            // 删除流式导出产生的临时文件
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+    }
+
+    static void setResponseHeader(String fileName, String contentType, HttpServletResponse response) throws IOException {
+        response.setHeader("Access-Control-Expose-Headers", "Content-Disposition");
+        response.setContentType(contentType);
+        String name = URLEncoder.encode(fileName, "UTF-8");
+        response.setHeader("Content-Disposition", "attachment;filename=" + name + ";filename*=UTF-8''" + name);
     }
 
     /**
-     * 创建表： 无表标题 从指定行开始
+     * 创建流式workbook(.xlsx)：内存中只保留默认窗口大小的行，其余行刷到临时文件
      *
-     * @param line     起始行
-     * @param headMap  要求是LinkedHashMap类型
-     * @param dataset
-     * @param sheet
-     * @param workbook
-     * @return 下一行
+     * @return
      */
-    public static int createTable(int line, Map<String, String> headMap, Collection dataset, Sheet sheet, HSSFWorkbook workbook) {
-        String[] fieldNames = new String[headMap.size()];
-        String[] headNames = new String[headMap.size()];
-        int i = 0;
-        for (Map.Entry<String, String> entry : headMap.entrySet()) {
-            fieldNames[i] = entry.getKey();
-            headNames[i] = entry.getValue();
-            i++;
-        }
-        line = createTableHead(line, headNames, sheet, workbook);
-        return createTableBody(line, fieldNames, dataset, sheet, workbook);
+    public static SXSSFWorkbook createStreamingWorkbook() {
+        return createStreamingWorkbook(DEFAULT_ROW_ACCESS_WINDOW);
     }
 
     /**
-     * 创建表头： 有表标题
+     * 创建流式workbook(.xlsx)
      *
-     * @param line
-     * @param tableName
-     * @param headNames
-     * @param sheet
-     * @param workbook
+     * @param rowAccessWindowSize 内存中保留的行数，超出部分刷到临时文件；只能访问窗口内的行
      * @return
      */
-    public static int createTableHead(int line, String tableName, String[] headNames, Sheet sheet, HSSFWorkbook workbook) {
-        line = createTableTitle(line, tableName, headNames.length, sheet, workbook);
-        return createTableHead(line, headNames, sheet, workbook);
+    public static SXSSFWorkbook createStreamingWorkbook(int rowAccessWindowSize) {
+        // 字典列的值写入共享字符串表，其余字符串内联
+        return new DictionarySXSSFWorkbook(rowAccessWindowSize);
     }
 
     /**
-     * 创建表头： 无表标题
+     * 创建流式workbook(.xlsx)：按导出配置设置压缩级别和临时文件压缩
      *
-     * @param line
-     * @param headNames
-     * @param sheet
-     * @param workbook
+     * @param rowAccessWindowSize
+     * @param profile             ExportProfile.LAN / WAN / LARGE 等
      * @return
      */
-    public static int createTableHead(int line, String[] headNames, Sheet sheet, HSSFWorkbook workbook) {
-        Row head = sheet.createRow(line);
-        CellStyle tableHeaderCellStyle = getTableHeadCellStyle(workbook);
-        for (int i = 0; i < headNames.length; i++) {
-            head.createCell(i).setCellValue(headNames[i]);
-            head.getCell(i).setCellStyle(tableHeaderCellStyle);
-        }
-        return ++line;
+    public static SXSSFWorkbook createStreamingWorkbook(int rowAccessWindowSize, ExportProfile profile) {
+        SXSSFWorkbook workbook = createStreamingWorkbook(rowAccessWindowSize);
+        workbook.setCompressTempFiles(profile.isCompressTempFiles());
+        WorkbookContext.of(workbook).setExportProfile(profile);
+        return workbook;
     }
 
     /**
-     * 创建表标题
+     * 并行创建多个互不依赖的sheet：sheet 按 sheetWriters 的顺序在当前线程创建，内容在导出专用的有界线程池(ExportExecutors#parallel)中并行填充
      *
-     * @param line
-     * @param tableName
-     * @param headLength
-     * @param sheet
+     * @param sheetWriters sheet名称 -> 填充该sheet，如 (sheet, wb) -> createTable(0, headMap, dataset, sheet, wb)
      * @param workbook
-     * @return
      */
-    public static int createTableTitle(int line, String tableName, int headLength, Sheet sheet, HSSFWorkbook workbook) {
-        Row row = sheet.createRow(line);
-        Cell cell = row.createCell(0);
-        cell.setCellValue(tableName);
-        CellStyle tableTitleCellStyle = getTableTitleCellStyle(workbook);
-        cell.setCellStyle(tableTitleCellStyle);
-        sheet.addMergedRegion(new CellRangeAddress(line, line, 0, headLength - 1));//起始行号，终止行号， 起始列号，终止列号
-        return ++line;
+    public static void createSheets(LinkedHashMap<String, BiConsumer<Sheet, Workbook>> sheetWriters, Workbook workbook) {
+        createSheets(sheetWriters, workbook, ExportExecutors.parallel());
     }
 
     /**
-     * 创建表体： fieldNames 必须与 headNames 一一对应
+     * 并行创建多个互不依赖的sheet
+     * 只有 createStreamingWorkbook 创建的流式workbook(内联字符串)的每个sheet单独写临时文件、互不共享可变状态，才会并行填充；
+     * HSSF/XSSF 的字符串表由所有sheet共享且非线程安全，自行创建的 SXSSFWorkbook 无法确认是否启用了共享字符串表，都按顺序填充
      *
-     * @param line       起始行
-     * @param sheet
-     * @param fieldNames 导出字段名
-     * @param dataset
-     * @return 下一行
+     * @param sheetWriters sheet名称 -> 填充该sheet
+     * @param workbook
+     * @param executor     填充sheet的线程池
      */
-    public static int createTableBody(int line, String[] fieldNames, Collection dataset, Sheet sheet, HSSFWorkbook workbook) {
-        Iterator it = dataset.iterator();
-        Object rowData;
-        Row row;
-        int length;
-        int[] colLens = new int[fieldNames.length];
-//        CellStyle tableBodyCellStyle = getTableBodyCellStyle(workbook);   //表体需要设置边框时可传入setCellValue方法
-        while (it.hasNext()) {
-            row = sheet.createRow(line++);
-            rowData = it.next();
-            for (int i = 0; i < fieldNames.length; i++) {
-                setCellValue(fieldNames[i], rowData, row.createCell(i), null);
-                length = row.getCell(i).getStringCellValue().getBytes().length;
-                colLens[i] = length > colLens[i] ? length : colLens[i];
+    public static void createSheets(LinkedHashMap<String, BiConsumer<Sheet, Workbook>> sheetWriters, Workbook workbook, Executor executor) {
+        List<Sheet> sheets = new ArrayList<>(sheetWriters.size());
+        for (String sheetName : sheetWriters.keySet()) {
+            sheets.add(workbook.createSheet(sheetName));
+        }
+        List<BiConsumer<Sheet, Workbook>> writers = new ArrayList<>(sheetWriters.values());
+        if (!isParallelSheetSupported(workbook) || sheets.size() < 2) {
+            for (int i = 0; i < sheets.size(); i++) {
+                writers.get(i).accept(sheets.get(i), workbook);
             }
+            return;
         }
-        // 根据数据自动设置列宽
-        for (int i = 0, len = colLens.length; i < len; i++) {
-            length = colLens[i];
-            length = length < DEFAULT_COL_WIDTH ? DEFAULT_COL_WIDTH : length;
-            sheet.setColumnWidth(i, length * 256);
+        // 先初始化样式注册表，各线程共享同一个上下文
+        WorkbookContext.of(workbook);
+        // 各sheet中创建的表格并入当前导出的内存预留
+        Executor admitted = ExportAdmission.propagate(executor);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[sheets.size()];
+        for (int i = 0; i < sheets.size(); i++) {
+            Sheet sheet = sheets.get(i);
+            BiConsumer<Sheet, Workbook> writer = writers.get(i);
+            futures[i] = CompletableFuture.runAsync(() -> writer.accept(sheet, workbook), admitted);
         }
-        return line + 2;
-    }
-
-    private static void setCellValue(String fieldName, Object obj, Cell cell, CellStyle cellStyle) {
-        String getMethodName = "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
         try {
-            Object value = obj.getClass().getMethod(getMethodName).invoke(obj);
-            cell.setCellStyle(cellStyle);
-            if (value == null) {
-                cell.setCellValue("");
-            } else if (value instanceof Date) {
-                cell.setCellValue(DEFAULT_FORMAT.format((Date) value));
-            } else {
-                //  需要别的类型可自行扩展
-                // 能用toString()直接转string类型的都直接转成string类型
-                cell.setCellValue(value.toString());
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ExportRejectedException) {
+                // 内存预算不足，保留 503
+                throw (ExportRejectedException) e.getCause();
             }
-        } catch (NoSuchMethodException e) {
-            cell.setCellValue(fieldName);
-        } catch (Exception e) {
-            logger.error("导出文件数据失败", e);
+            logger.error("创建sheet失败", e.getCause());
             //  可替换成自己项目中包装的异常类
-            throw new RuntimeException("导出文件失败");
+            throw new RuntimeException("创建sheet失败");
         }
     }
 
     /**
-     * 根据表头自动设置列宽
+     * 是否可以并行填充sheet：DictionarySXSSFWorkbook 创建时固定不启用共享字符串表(useSharedStringsTable=false)
      *
-     * @param headNames
-     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static boolean isParallelSheetSupported(Workbook workbook) {
+        return workbook instanceof DictionarySXSSFWorkbook;
+    }
+
+    /**
+     * 快捷导出的workbook只有一个表，表体超过文件格式的行数上限时换到新sheet，不必预先知道数据量
+     */
+    private static <W extends Workbook> W withSheetRollover(W workbook) {
+        WorkbookContext.of(workbook).setMaxRowsPerSheet(Integer.MAX_VALUE);
+        return workbook;
+    }
+
+    /**
+     * 快捷导出excel: 有sheet标题 有表标题
+     *
+     * @param fileName
+     * @param sheetName
+     * @param tableName
+     * @param headMap
+     * @param dataset
+     * @param response
+     */
+    public static void exportExcel(String fileName, String sheetName, String tableName, Map<String, String> headMap, Collection dataset, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(new HSSFWorkbook()), wb -> {
+            Sheet sheet = wb.createSheet(sheetName);
+            int line = createSheetTitle(headMap.size(), sheetName, sheet, wb);
+            createTable(line, tableName, headMap, dataset, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 无sheet标题 无表标题
+     *
+     * @param fileName
+     * @param headMap
+     * @param dataset
+     * @param response
+     */
+    public static void exportExcel(String fileName, Map<String, String> headMap, Collection dataset, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(new HSSFWorkbook()), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createTable(0, headMap, dataset, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 无sheet标题 无表标题 按需拉取数据
+     *
+     * @param fileName
+     * @param headMap
+     * @param rows     如 RowSources.paged(...)
+     * @param response
+     */
+    public static void exportExcel(String fileName, Map<String, String> headMap, Iterator<?> rows, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(new HSSFWorkbook()), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createTable(0, headMap, rows, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 无sheet标题 无表标题 按需拉取数据，导出结束后关闭stream
+     *
+     * @param fileName
+     * @param headMap
+     * @param rows
+     * @param response
+     */
+    public static void exportExcel(String fileName, Map<String, String> headMap, Stream<?> rows, HttpServletResponse response) {
+        try (Stream<?> stream = rows) {
+            exportExcel(fileName, headMap, stream.iterator(), response);
+        }
+    }
+
+    /**
+     * 快捷导出excel: 流式xlsx 无sheet标题 无表标题
+     *
+     * @param fileName
+     * @param headMap
+     * @param dataset
+     * @param rowAccessWindowSize 内存中保留的行数
+     * @param response
+     */
+    public static void exportStreamingExcel(String fileName, Map<String, String> headMap, Collection dataset, int rowAccessWindowSize, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(createStreamingWorkbook(rowAccessWindowSize)), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createTable(0, headMap, dataset, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 流式xlsx 无sheet标题 无表标题 按需拉取数据
+     * 数据逐行拉取、逐行写入，已写出的行刷到临时文件，适合直接从数据库游标或分页查询导出
+     *
+     * @param fileName
+     * @param headMap
+     * @param rows                如 RowSources.paged(...)
+     * @param rowAccessWindowSize 内存中保留的行数
+     * @param response
+     */
+    public static void exportStreamingExcel(String fileName, Map<String, String> headMap, Iterator<?> rows, int rowAccessWindowSize, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(createStreamingWorkbook(rowAccessWindowSize)), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createTable(0, headMap, rows, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 流式xlsx 无sheet标题 无表标题 按需拉取数据，导出结束后关闭stream
+     *
+     * @param fileName
+     * @param headMap
+     * @param rows
+     * @param rowAccessWindowSize 内存中保留的行数
+     * @param response
+     */
+    public static void exportStreamingExcel(String fileName, Map<String, String> headMap, Stream<?> rows, int rowAccessWindowSize, HttpServletResponse response) {
+        try (Stream<?> stream = rows) {
+            exportStreamingExcel(fileName, headMap, stream.iterator(), rowAccessWindowSize, response);
+        }
+    }
+
+    /**
+     * 快捷导出excel: 二级合并表头 无sheet标题 无表标题
+     *
+     * @param fileName
+     * @param dataset
+     * @param response
+     */
+    public static void export2LevelHeadExcel(String fileName, Map<String, Map<String, String>> mergeHeadMap, Collection dataset, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(new HSSFWorkbook()), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            create2LevelHeadTable(0, mergeHeadMap, dataset, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 多级合并表头 无sheet标题 无表标题
+     *
+     * @param fileName
+     * @param dataset
+     * @param response
+     */
+    public static void exportMultiLevelHeadExcel(String fileName, List<Map<String, Object>> mergeHeads, Collection dataset, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(new HSSFWorkbook()), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createMultiLevelHeadTable(0, mergeHeads, dataset, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 按实体类的 @ExcelColumn 注解 无sheet标题 无表标题
+     *
+     * @param fileName
+     * @param type     带 @ExcelColumn 注解的实体类
+     * @param dataset
+     * @param response
+     * @param <T>
+     */
+    public static <T> void exportExcel(String fileName, Class<T> type, Collection<? extends T> dataset, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(new HSSFWorkbook()), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createTable(0, RowWriters.of(type), dataset, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 按编译好的表头布局 无sheet标题 无表标题
+     *
+     * @param fileName
+     * @param layout   如 ExcelLayout.cached("scores", () -> ExcelLayout.ofMultiLevelHead(mergeHeads))
+     * @param dataset
+     * @param response
+     */
+    public static void exportExcel(String fileName, ExcelLayout layout, Collection<?> dataset, HttpServletResponse response) {
+        exportExcel(fileName, withSheetRollover(new HSSFWorkbook()), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createTable(0, layout, dataset, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 快捷导出excel: 按编译好的模板填充，.xls 还是 .xlsx 与模板一致
+     *
+     * @param fileName
+     * @param template 如 ExcelTemplate.cached("students", () -> ExcelTemplate.compile(in))
+     * @param values   ${} 占位符的取值：Map 或 JavaBean
+     * @param dataset  #{} 重复行的数据
+     * @param response
+     */
+    public static void exportExcel(String fileName, ExcelTemplate template, Object values, Collection<?> dataset, HttpServletResponse response) {
+        exportExcel(fileName, template.fill(values, dataset), response);
+    }
+
+    /**
+     * 快捷导出excel:无集合属性字段的简单对象快捷导出excel
+     *
+     * @param fileName
+     * @param names
+     * @param t
+     * @param response
+     */
+    public static <T> void exportSimpleObjectExcel(String fileName, List<Map<String, Integer>> names, T t, HttpServletResponse response) {
+        exportExcel(fileName, new HSSFWorkbook(), wb -> {
+            Sheet sheet = wb.createSheet(fileName);
+            createSimpleObjectTable(0, names, t, sheet, wb);
+        }, response);
+    }
+
+    /**
+     * 创建表格： 有集合属性字段的复杂对象
+     *
+     * @param line
+     * @param names：每一行对应一个Map；单元格值为常量时key为此常量,value为合并单元格数量；
+     *             单元格值为变量时key为T的非集合字段名，value为合并单元格数量；
+     *             当该行以下为集合时，key为T的集合字段名，value为集合元素要显示的字段列表
+     * @param t
+     * @param sheet
+     * @param workbook
+     * @param <T>
+     * @return
+     */
+    public static <T> int createObjectTable(int line, List<Map<String, Object>> names, T t, Sheet sheet, Workbook workbook) {
+        return createObjectTable(line, ExcelLayout.ofObject(names), t, sheet, workbook);
+    }
+
+    /**
+     * 创建表格： 按编译好的对象表格布局，见 ExcelLayout.ofObject/ofSimpleObject
+     *
+     * @param line
+     * @param layout
+     * @param t
+     * @param sheet
+     * @param workbook
+     * @param <T>
+     * @return
+     */
+    public static <T> int createObjectTable(int line, ExcelLayout layout, T t, Sheet sheet, Workbook workbook) {
+        long startTime = System.nanoTime();
+        int firstLine = line;
+        CellStyle tableBodyRangeCellStyle = getCellStyle(layout.getRangeStyle(), workbook);
+        CellStyle tableBodyCellStyle = getCellStyle(layout.getStyle(), workbook);
+        WorkbookContext context = WorkbookContext.of(workbook);
+        PropertyAccessor[] keyAccessors = layout.getAccessors(t.getClass());
+        // 集合展开后的行数、列数和合并区域数已确定，补足当前导出的内存预留
+        ExportAdmission.reserve(workbook, getObjectRowCount(layout, keyAccessors, t), layout.getColumnCount(), layout.getMergeCount());
+        List<CellRangeAddress> regions = new ArrayList<>();
+        Row row;
+        //创建表
+        for (int i = 0; i < layout.getRowCount(); i++) {
+            row = sheet.createRow(line++);
+            for (ExcelLayout.Segment segment : layout.getRow(i)) {
+                if (segment.listFields == null) {  //非集合
+                    //创建单元格
+                    for (int v = 0; v < segment.span; v++) {
+                        row.createCell(segment.col + v).setCellStyle(tableBodyCellStyle);
+                    }
+                    //赋值
+                    if (segment.isCovered()) {
+                        continue;
+                    }
+                    //合并单元格
+                    boolean merged = segment.isMerged();
+                    setCellValue(segment.text, keyAccessors[segment.keyIndex], t, row.getCell(segment.col), merged ? tableBodyRangeCellStyle : tableBodyCellStyle);
+                    if (merged) {
+                        regions.add(new CellRangeAddress(line - 1, line + segment.rowSpan - 2, segment.col, segment.col + segment.span - 1));//起始行号，终止行号， 起始列号，终止列号
+                    }
+                } else {  //集合
+                    String[] fieldNames = segment.listFields;
+                    try {
+                        List dataset = (List) keyAccessors[segment.keyIndex].get(t);
+                        Class<?> rowClass = null;
+                        PropertyAccessor[] accessors = null;
+                        CellConverter[] converters = null;
+                        CellStyle[] dateStyles = null;
+                        for (int n = 0; n < dataset.size(); n++) {
+                            Object rowData = dataset.get(n);
+                            if (rowData.getClass() != rowClass) {
+                                rowClass = rowData.getClass();
+                                accessors = PropertyAccessor.of(rowClass, fieldNames);
+                                converters = context.getConverters().resolve(accessors);
+                                dateStyles = getDateCellStyles(converters, tableBodyCellStyle, context);
+                            }
+                            if (n > 0) {
+                                row = sheet.createRow(line++);
+                            }
+                            for (int m = 0; m < fieldNames.length; m++) {
+                                Cell cell = row.createCell(m);
+                                cell.setCellStyle(tableBodyCellStyle);
+                                if (accessors[m].isPresent()) {
+                                    setCellValue(cell, converters[m], accessors[m].get(rowData), dateStyles[m]);
+                                } else {
+                                    cell.setCellValue(fieldNames[m]);
+                                }
+                            }
+                        }
+                    } catch (Exception e) {
+                        logger.error("导出文件数据失败", e);
+                        //  可替换成自己项目中包装的异常类
+                        throw new RuntimeException("导出文件失败");
+                    }
+                }
+            }
+        }
+        long mergeNanos = addMergedRegions(sheet, regions);
+        ExportMetrics metrics = context.getMetrics();
+        metrics.addTime(ExportMetrics.Phase.MERGE, mergeNanos);
+        metrics.addTime(ExportMetrics.Phase.BODY, System.nanoTime() - startTime - mergeNanos);
+        metrics.addRows(line - firstLine, layout.getColumnCount());
+        return ++line;
+    }
+
+    /**
+     * 对象表格展开集合后的行数：每个集合的第一个元素写在布局的行中，其余元素各占一行
+     */
+    private static long getObjectRowCount(ExcelLayout layout, PropertyAccessor[] keyAccessors, Object t) {
+        long rows = layout.getRowCount();
+        try {
+            for (int i = 0; i < layout.getRowCount(); i++) {
+                for (ExcelLayout.Segment segment : layout.getRow(i)) {
+                    if (segment.listFields != null) {
+                        List<?> dataset = (List<?>) keyAccessors[segment.keyIndex].get(t);
+                        rows += Math.max(0, dataset.size() - 1);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("导出文件数据失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+        return rows;
+    }
+
+    /**
+     * 创建表格： 无集合属性字段的简单对象
+     *
+     * @param line
+     * @param names：每一行对应一个Map，单元格值为常量时key为此常量,value为合并单元格数量；单元格值为变量时key为T的字段名，value为合并单元格数量
+     * @param t
+     * @param sheet
+     * @param <T>
+     * @return
+     */
+    public static <T> int createSimpleObjectTable(int line, List<Map<String, Integer>> names, T t, Sheet sheet, Workbook workbook) {
+        return createObjectTable(line, ExcelLayout.ofSimpleObject(names), t, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 多级表头合并 无表标题  从指定行开始  兼容二级表头合并
+     *
+     * @param line
+     * @param mergeHeads： 表头每一行对应一个Map<String,Object>；非底行的key为名称，value为合并单元格数量；底行的key为字段名，value为名称；竖向单元格合并的应在每行Map中都有；Map采用LinkedHashMap
+     * @param dataset
+     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static int createMultiLevelHeadTable(int line, List<Map<String, Object>> mergeHeads, Collection dataset, Sheet sheet, Workbook workbook) {
+        return createTable(line, ExcelLayout.ofMultiLevelHead(mergeHeads), dataset, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 多级表头合并 无表标题  从指定行开始  按需拉取数据
+     *
+     * @param line
+     * @param mergeHeads
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static int createMultiLevelHeadTable(int line, List<Map<String, Object>> mergeHeads, Iterator<?> rows, Sheet sheet, Workbook workbook) {
+        return createTable(line, ExcelLayout.ofMultiLevelHead(mergeHeads), rows, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 二级树形表头合并 无表标题  从指定行开始
+     *
+     * @param line
+     * @param mergeHeadMap： 外层Map的key为第一行名称，value为子表头Map；里层Map的key为字段名，value为名称；Map采用LinkedHashMap
+     * @param dataset
+     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static int create2LevelHeadTable(int line, Map<String, Map<String, String>> mergeHeadMap, Collection dataset, Sheet sheet, Workbook workbook) {
+        return createTable(line, ExcelLayout.of2LevelHead(mergeHeadMap), dataset, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 二级树形表头合并 无表标题  从指定行开始  按需拉取数据
+     *
+     * @param line
+     * @param mergeHeadMap
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static int create2LevelHeadTable(int line, Map<String, Map<String, String>> mergeHeadMap, Iterator<?> rows, Sheet sheet, Workbook workbook) {
+        return createTable(line, ExcelLayout.of2LevelHead(mergeHeadMap), rows, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 有表标题 从指定行开始
+     *
+     * @param line      起始行
+     * @param tableName
+     * @param headMap   要求是LinkedHashMap类型
+     * @param dataset
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, String tableName, Map<String, String> headMap, Collection dataset, Sheet sheet, Workbook workbook) {
+        return createTable(line, tableName, ExcelLayout.ofHead(headMap), dataset, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 有表标题 从指定行开始 按需拉取数据
+     *
+     * @param line      起始行
+     * @param tableName
+     * @param headMap   要求是LinkedHashMap类型
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, String tableName, Map<String, String> headMap, Iterator<?> rows, Sheet sheet, Workbook workbook) {
+        return createTable(line, tableName, ExcelLayout.ofHead(headMap), rows, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 无表标题 从指定行开始
+     *
+     * @param line     起始行
+     * @param headMap  要求是LinkedHashMap类型
+     * @param dataset
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, Map<String, String> headMap, Collection dataset, Sheet sheet, Workbook workbook) {
+        return createTable(line, ExcelLayout.ofHead(headMap), dataset, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 无表标题 从指定行开始 按需拉取数据
+     *
+     * @param line     起始行
+     * @param headMap  要求是LinkedHashMap类型
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, Map<String, String> headMap, Iterator<?> rows, Sheet sheet, Workbook workbook) {
+        return createTable(line, ExcelLayout.ofHead(headMap), rows, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 无表标题 从指定行开始 流水线方式写入表体，见 createTableBody(int, String[], Iterator, Sheet, Workbook, Executor)
+     *
+     * @param line     起始行
+     * @param headMap  要求是LinkedHashMap类型
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @param executor 转换线程池
+     * @return 下一行
+     */
+    public static int createTable(int line, Map<String, String> headMap, Iterator<?> rows, Sheet sheet, Workbook workbook, Executor executor) {
+        ExcelLayout layout = ExcelLayout.ofHead(headMap);
+        line = createTableHead(line, layout, sheet, workbook);
+        SheetRollover sheets = new SheetRollover(line, sheet, workbook, next -> createTableHead(0, layout, next, workbook));
+        return createTableBody(layout.fieldNames(), rows, sheets, workbook, executor);
+    }
+
+    /**
+     * 创建表： 按编译好的布局 无表标题 从指定行开始
+     *
+     * @param line     起始行
+     * @param layout   表头布局，见 ExcelLayout.ofHead/of2LevelHead/ofMultiLevelHead
+     * @param dataset
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, ExcelLayout layout, Collection<?> dataset, Sheet sheet, Workbook workbook) {
+        // 数据量和表头已确定，按行数、列数补足当前导出的内存预留
+        ExportAdmission.reserve(workbook, dataset.size(), layout.getColumnCount(), layout.getMergeCount());
+        return createTable(line, layout, dataset.iterator(), sheet, workbook);
+    }
+
+    /**
+     * 创建表： 按编译好的布局 无表标题 从指定行开始 按需拉取数据
+     *
+     * @param line     起始行
+     * @param layout   表头布局
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, ExcelLayout layout, Iterator<?> rows, Sheet sheet, Workbook workbook) {
+        line = createTableHead(line, layout, sheet, workbook);
+        // 表体写满当前sheet时换到新sheet，新sheet从第一行开始重复表头
+        SheetRollover sheets = new SheetRollover(line, sheet, workbook, next -> createTableHead(0, layout, next, workbook));
+        return createTableBody(layout.fieldNames(), rows, sheets, workbook);
+    }
+
+    /**
+     * 创建表： 按编译好的布局 有表标题 从指定行开始
+     *
+     * @param line      起始行
+     * @param tableName
+     * @param layout    表头布局
+     * @param dataset
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, String tableName, ExcelLayout layout, Collection<?> dataset, Sheet sheet, Workbook workbook) {
+        line = createTableTitle(line, tableName, layout.getColumnCount(), sheet, workbook);
+        return createTable(line, layout, dataset, sheet, workbook);
+    }
+
+    /**
+     * 创建表： 按编译好的布局 有表标题 从指定行开始 按需拉取数据
+     *
+     * @param line      起始行
+     * @param tableName
+     * @param layout    表头布局
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTable(int line, String tableName, ExcelLayout layout, Iterator<?> rows, Sheet sheet, Workbook workbook) {
+        line = createTableTitle(line, tableName, layout.getColumnCount(), sheet, workbook);
+        return createTable(line, layout, rows, sheet, workbook);
+    }
+
+    /**
+     * 创建表头： 按编译好的布局，合并单元格批量加入
+     *
+     * @param line
+     * @param layout
+     * @param sheet
+     * @param workbook
+     * @return 表体起始行
+     */
+    public static int createTableHead(int line, ExcelLayout layout, Sheet sheet, Workbook workbook) {
+        SheetRollover.checkWritable(sheet, workbook);
+        long startTime = System.nanoTime();
+        CellStyle tableHeadCellStyle = getCellStyle(layout.getStyle(), workbook);
+        List<CellRangeAddress> regions = new ArrayList<>();
+        for (int i = 0; i < layout.getRowCount(); i++) {
+            Row row = sheet.createRow(line + i);
+            for (ExcelLayout.Segment segment : layout.getRow(i)) {
+                //创建单元格
+                for (int v = 0; v < segment.span; v++) {
+                    row.createCell(segment.col + v).setCellStyle(tableHeadCellStyle);
+                }
+                //赋值并合并单元格
+                if (segment.isCovered()) {
+                    continue;
+                }
+                row.getCell(segment.col).setCellValue(segment.text);
+                if (segment.isMerged()) {
+                    regions.add(new CellRangeAddress(line + i, line + i + segment.rowSpan - 1, segment.col, segment.col + segment.span - 1));//起始行号，终止行号， 起始列号，终止列号
+                }
+            }
+        }
+        long mergeNanos = addMergedRegions(sheet, regions);
+        ExportMetrics metrics = WorkbookContext.of(workbook).getMetrics();
+        metrics.addTime(ExportMetrics.Phase.MERGE, mergeNanos);
+        metrics.addTime(ExportMetrics.Phase.HEAD, System.nanoTime() - startTime - mergeNanos);
+        return line + layout.getRowCount();
+    }
+
+    /**
+     * 批量加入合并区域
+     *
+     * @return 耗时(纳秒)
+     */
+    private static long addMergedRegions(Sheet sheet, List<CellRangeAddress> regions) {
+        long startTime = System.nanoTime();
+        MergePlanner.addMergedRegions(sheet, regions);
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * 创建表： 按编译时生成的 RowWriter 无表标题 从指定行开始，表头、字段顺序、格式、列宽取自 @ExcelColumn
+     *
+     * @param line     起始行
+     * @param writer   RowWriters.of(Xxx.class)
+     * @param dataset
+     * @param sheet
+     * @param workbook
+     * @param <T>
+     * @return 下一行
+     */
+    public static <T> int createTable(int line, RowWriter<T> writer, Collection<? extends T> dataset, Sheet sheet, Workbook workbook) {
+        ExportAdmission.reserve(workbook, dataset.size(), writer.getHeadNames().length, 0);
+        return createTable(line, writer, dataset.iterator(), sheet, workbook);
+    }
+
+    /**
+     * 创建表： 按编译时生成的 RowWriter 无表标题 从指定行开始 按需拉取数据
+     *
+     * @param line     起始行
+     * @param writer
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @param <T>
+     * @return 下一行
+     */
+    public static <T> int createTable(int line, RowWriter<T> writer, Iterator<? extends T> rows, Sheet sheet, Workbook workbook) {
+        line = createTableHead(line, writer.getHeadNames(), sheet, workbook);
+        SheetRollover sheets = new SheetRollover(line, sheet, workbook, next -> createTableHead(0, writer.getHeadNames(), next, workbook));
+        return createTableBody(writer, rows, sheets, workbook);
+    }
+
+    /**
+     * 创建表头： 有表标题
+     *
+     * @param line
+     * @param tableName
+     * @param headNames
+     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static int createTableHead(int line, String tableName, String[] headNames, Sheet sheet, Workbook workbook) {
+        line = createTableTitle(line, tableName, headNames.length, sheet, workbook);
+        return createTableHead(line, headNames, sheet, workbook);
+    }
+
+    /**
+     * 创建表头： 无表标题
+     *
+     * @param line
+     * @param headNames
+     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static int createTableHead(int line, String[] headNames, Sheet sheet, Workbook workbook) {
+        SheetRollover.checkWritable(sheet, workbook);
+        long startTime = System.nanoTime();
+        Row head = sheet.createRow(line);
+        CellStyle tableHeaderCellStyle = getTableHeadCellStyle(workbook);
+        for (int i = 0; i < headNames.length; i++) {
+            head.createCell(i).setCellValue(headNames[i]);
+            head.getCell(i).setCellStyle(tableHeaderCellStyle);
+        }
+        WorkbookContext.of(workbook).getMetrics().addTime(ExportMetrics.Phase.HEAD, System.nanoTime() - startTime);
+        return ++line;
+    }
+
+    /**
+     * 创建表标题
+     *
+     * @param line
+     * @param tableName
+     * @param headLength
+     * @param sheet
+     * @param workbook
+     * @return
+     */
+    public static int createTableTitle(int line, String tableName, int headLength, Sheet sheet, Workbook workbook) {
+        SheetRollover.checkWritable(sheet, workbook);
+        Row row = sheet.createRow(line);
+        Cell cell = row.createCell(0);
+        cell.setCellValue(tableName);
+        CellStyle tableTitleCellStyle = getTableTitleCellStyle(workbook);
+        cell.setCellStyle(tableTitleCellStyle);
+        sheet.addMergedRegion(new CellRangeAddress(line, line, 0, headLength - 1));//起始行号，终止行号， 起始列号，终止列号
+        return ++line;
+    }
+
+    /**
+     * 创建表体： fieldNames 必须与 headNames 一一对应
+     *
+     * @param line       起始行
+     * @param sheet
+     * @param fieldNames 导出字段名
+     * @param dataset
+     * @return 下一行
+     */
+    public static int createTableBody(int line, String[] fieldNames, Collection dataset, Sheet sheet, Workbook workbook) {
+        return createTableBody(line, fieldNames, dataset.iterator(), sheet, workbook);
+    }
+
+    /**
+     * 创建表体： 按需拉取数据，导出结束后关闭stream
+     *
+     * @param line       起始行
+     * @param fieldNames 导出字段名
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @return 下一行
+     */
+    public static int createTableBody(int line, String[] fieldNames, Stream<?> rows, Sheet sheet, Workbook workbook) {
+        try (Stream<?> stream = rows) {
+            return createTableBody(line, fieldNames, stream.iterator(), sheet, workbook);
+        }
+    }
+
+    /**
+     * 创建表体： 按需拉取数据，每取一条写一行，不要求数据预先全部加载到内存
+     * 开启换sheet(WorkbookContext#setMaxRowsPerSheet)时，行数达到上限后换到新sheet继续写入(不重复表头，需要重复表头时用 createTable)
+     *
+     * @param line       起始行
+     * @param fieldNames 导出字段名
+     * @param rows       如 RowSources.paged(...)、数据库游标
+     * @param sheet
+     * @param workbook
+     * @return 下一行；换过sheet时为最后一个sheet的下一行
+     */
+    public static int createTableBody(int line, String[] fieldNames, Iterator<?> rows, Sheet sheet, Workbook workbook) {
+        return createTableBody(fieldNames, rows, new SheetRollover(line, sheet, workbook, null), workbook);
+    }
+
+    private static int createTableBody(String[] fieldNames, Iterator<?> rows, SheetRollover sheets, Workbook workbook) {
+        long startTime = System.nanoTime();
+        int rowCount = 0;
+        WorkbookContext context = WorkbookContext.of(workbook);
+        Iterator<?> it = rows;
+        Object rowData;
+        Row row;
+        Cell cell;
+        Object cellValue;
+        ColumnWidthStrategy.Tracker widths = context.getColumnWidthStrategy().newTracker(fieldNames.length);
+        boolean measuring;
+        Class<?> rowClass = null;
+        PropertyAccessor[] accessors = null;
+        CellConverter[] converters = null;
+        CellStyle[] dateStyles = null;
+        StringDictionary.Column[] dictionaries = context.getStringDictionary().columns(fieldNames, workbook);
+//        CellStyle tableBodyCellStyle = getTableBodyCellStyle(workbook);   //表体需要设置边框时可传入setCellValue方法
+        // 取数(数据源的 hasNext/next，如分页查询)的耗时单独统计
+        long fetchNanos = 0;
+        long fetchStart = startTime;
+        while (it.hasNext()) {
+            rowData = it.next();
+            fetchNanos += System.nanoTime() - fetchStart;
+            row = sheets.createRow();
+            rowCount++;
+            measuring = widths.isMeasuring();
+            if (rowData.getClass() != rowClass) {
+                // 每列的取值器、转换器、日期样式只在数据类型变化时解析一次
+                rowClass = rowData.getClass();
+                accessors = PropertyAccessor.of(rowClass, fieldNames);
+                converters = context.getConverters().resolve(accessors);
+                dateStyles = getDateCellStyles(converters, null, context);
+            }
+            for (int i = 0; i < fieldNames.length; i++) {
+                cell = row.createCell(i);
+                if (accessors[i].isPresent()) {
+                    cellValue = convertValue(converters[i], getValue(accessors[i], rowData));
+                    setConvertedCellValue(cell, converters[i], cellValue, dateStyles[i], dictionaries == null ? null : dictionaries[i]);
+                    if (measuring) {
+                        widths.add(i, getCellWidth(converters[i], cellValue));
+                    }
+                } else {
+                    cell.setCellValue(fieldNames[i]);
+                    if (measuring) {
+                        widths.add(i, DisplayWidth.of(fieldNames[i]));
+                    }
+                }
+            }
+            widths.endRow();
+            fetchStart = System.nanoTime();
+        }
+        fetchNanos += System.nanoTime() - fetchStart;
+        // 根据数据自动设置列宽
+        for (Sheet sheet : sheets.getSheets()) {
+            widths.apply(sheet);
+        }
+        recordBody(context, startTime, fetchNanos, rowCount, fieldNames.length);
+        return sheets.getLine() + 2;
+    }
+
+    /**
+     * 创建表体： 流水线方式，取值和格式化在 executor 中按批并行，单元格仍由当前线程按顺序写入
+     * 数据源只在当前线程中读取(可直接使用数据库游标)，同时在途的批次数有上限，内存占用与数据总量无关；
+     * 适用于取值或转换器较重(日期格式化、自定义转换器)的大表
+     *
+     * @param line       起始行
+     * @param fieldNames 导出字段名
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @param executor   转换线程池；在 ExportExecutors#parallel 的线程中(如 createSheets 的sheet)传入同一线程池时在当前线程转换
+     * @return 下一行；换过sheet时为最后一个sheet的下一行
+     */
+    public static int createTableBody(int line, String[] fieldNames, Iterator<?> rows, Sheet sheet, Workbook workbook, Executor executor) {
+        return createTableBody(fieldNames, rows, new SheetRollover(line, sheet, workbook, null), workbook, executor);
+    }
+
+    private static int createTableBody(String[] fieldNames, Iterator<?> rows, SheetRollover sheets, Workbook workbook, Executor executor) {
+        long startTime = System.nanoTime();
+        long fetchNanos = 0;
+        int rowCount = 0;
+        WorkbookContext context = WorkbookContext.of(workbook);
+        Map<Class<?>, RowLayout> layouts = new ConcurrentHashMap<>();
+        // 转换任务在线程池中执行，与当前线程使用同一个导出的内存预留；
+        // 已在该线程池的线程中(如 createSheets 并行填充的sheet)时，等待排在后面的转换任务可能使线程池中的线程都在等待，改为在当前线程转换
+        Executor admitted = ExportExecutors.isPoolThread(executor) ? Runnable::run : ExportAdmission.propagate(executor);
+        Deque<CompletableFuture<RowBatch>> batches = new ArrayDeque<>(PIPELINE_MAX_BATCHES);
+        ColumnWidthStrategy.Tracker widths = context.getColumnWidthStrategy().newTracker(fieldNames.length);
+        boolean measuring;
+        RowLayout layout = null;
+        CellStyle[] dateStyles = null;
+        StringDictionary.Column[] dictionaries = context.getStringDictionary().columns(fieldNames, workbook);
+        Row row;
+        Cell cell;
+        try {
+            while (true) {
+                // 读取数据并提交转换，直到在途批次达到上限
+                long fetchStart = System.nanoTime();
+                while (batches.size() < PIPELINE_MAX_BATCHES && rows.hasNext()) {
+                    Object[] batch = new Object[PIPELINE_BATCH_SIZE];
+                    int size = 0;
+                    while (size < batch.length && rows.hasNext()) {
+                        batch[size++] = rows.next();
+                    }
+                    int batchSize = size;
+                    batches.addLast(CompletableFuture.supplyAsync(() -> convertBatch(batch, batchSize, fieldNames, layouts, context), admitted));
+                }
+                fetchNanos += System.nanoTime() - fetchStart;
+                CompletableFuture<RowBatch> next = batches.pollFirst();
+                if (next == null) {
+                    break;
+                }
+                RowBatch batch = next.join();
+                for (int r = 0; r < batch.size; r++) {
+                    if (batch.layouts[r] != layout) {
+                        layout = batch.layouts[r];
+                        dateStyles = getDateCellStyles(layout.converters, null, context);
+                    }
+                    Object[] values = batch.values[r];
+                    row = sheets.createRow();
+                    rowCount++;
+                    measuring = widths.isMeasuring();
+                    for (int i = 0; i < fieldNames.length; i++) {
+                        cell = row.createCell(i);
+                        if (layout.accessors[i].isPresent()) {
+                            setConvertedCellValue(cell, layout.converters[i], values[i], dateStyles[i], dictionaries == null ? null : dictionaries[i]);
+                            if (measuring) {
+                                widths.add(i, getCellWidth(layout.converters[i], values[i]));
+                            }
+                        } else {
+                            cell.setCellValue(fieldNames[i]);
+                            if (measuring) {
+                                widths.add(i, DisplayWidth.of(fieldNames[i]));
+                            }
+                        }
+                    }
+                    widths.endRow();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("导出文件数据失败", e instanceof CompletionException ? e.getCause() : e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        } finally {
+            // 读取数据、换sheet或写单元格失败时取消在途的批次，不再占用转换线程；正常结束时已没有在途批次
+            batches.forEach(batch -> batch.cancel(false));
+        }
+        // 根据数据自动设置列宽
+        for (Sheet sheet : sheets.getSheets()) {
+            widths.apply(sheet);
+        }
+        recordBody(context, startTime, fetchNanos, rowCount, fieldNames.length);
+        return sheets.getLine() + 2;
+    }
+
+    /**
+     * 创建表体： 按编译时生成的 RowWriter 取值，直接调用 getter，不使用反射
+     * 按列注册的转换器优先，其次 @ExcelColumn 的 format(日期为显示格式，数值为 Excel 数字格式)，最后为类型的默认转换器
+     *
+     * @param line     起始行
+     * @param writer
+     * @param rows
+     * @param sheet
+     * @param workbook
+     * @param <T>
+     * @return 下一行；换过sheet时为最后一个sheet的下一行
+     */
+    public static <T> int createTableBody(int line, RowWriter<T> writer, Iterator<? extends T> rows, Sheet sheet, Workbook workbook) {
+        return createTableBody(writer, rows, new SheetRollover(line, sheet, workbook, null), workbook);
+    }
+
+    private static <T> int createTableBody(RowWriter<T> writer, Iterator<? extends T> rows, SheetRollover sheets, Workbook workbook) {
+        long startTime = System.nanoTime();
+        int rowCount = 0;
+        WorkbookContext context = WorkbookContext.of(workbook);
+        String[] fieldNames = writer.getFieldNames();
+        Class<?>[] fieldTypes = writer.getFieldTypes();
+        String[] formats = writer.getFormats();
+        int[] fixedWidths = writer.getWidths();
+        int cols = fieldNames.length;
+        CellConverter[] converters = new CellConverter[cols];
+        CellStyle[] numberStyles = new CellStyle[cols];
+        for (int i = 0; i < cols; i++) {
+            converters[i] = context.getConverters().resolve(fieldNames[i], fieldTypes[i]);
+            // 按列注册的转换器优先，不再按注解的 format 覆盖
+            if (formats[i].isEmpty() || context.getConverters().isRegistered(fieldNames[i])) {
+                continue;
+            }
+            if (converters[i].getKind() == CellKind.DATE) {
+                converters[i] = CellConverter.date(formats[i]);
+            } else if (converters[i].getKind() == CellKind.NUMERIC || converters[i].getKind() == CellKind.DYNAMIC) {
+                numberStyles[i] = getCellStyle(CellStyleSpec.builder().dataFormat(formats[i]).build(), workbook);
+            }
+        }
+        CellStyle[] dateStyles = getDateCellStyles(converters, null, context);
+        StringDictionary.Column[] dictionaries = context.getStringDictionary().columns(fieldNames, workbook);
+        ColumnWidthStrategy.Tracker widths = context.getColumnWidthStrategy().newTracker(cols);
+        Object[] values = new Object[cols];
+        Object cellValue;
+        boolean measuring;
+        Row row;
+        Cell cell;
+        long fetchNanos = 0;
+        long fetchStart = System.nanoTime();
+        while (rows.hasNext()) {
+            T rowData = rows.next();
+            fetchNanos += System.nanoTime() - fetchStart;
+            try {
+                writer.getValues(rowData, values);
+            } catch (Exception e) {
+                logger.error("导出文件数据失败", e);
+                //  可替换成自己项目中包装的异常类
+                throw new RuntimeException("导出文件失败");
+            }
+            row = sheets.createRow();
+            rowCount++;
+            measuring = widths.isMeasuring();
+            for (int i = 0; i < cols; i++) {
+                cell = row.createCell(i);
+                if (numberStyles[i] != null) {
+                    cell.setCellStyle(numberStyles[i]);
+                }
+                cellValue = convertValue(converters[i], values[i]);
+                setConvertedCellValue(cell, converters[i], cellValue, dateStyles[i], dictionaries == null ? null : dictionaries[i]);
+                if (measuring && fixedWidths[i] <= 0) {
+                    widths.add(i, getCellWidth(converters[i], cellValue));
+                }
+            }
+            widths.endRow();
+            fetchStart = System.nanoTime();
+        }
+        fetchNanos += System.nanoTime() - fetchStart;
+        // 注解指定了列宽的列使用固定列宽，其余自动设置
+        for (int i = 0; i < cols; i++) {
+            int width = fixedWidths[i] > 0 ? Math.min(fixedWidths[i], ColumnWidthStrategy.MAX_WIDTH) : widths.getWidth(i);
+            for (Sheet sheet : sheets.getSheets()) {
+                sheet.setColumnWidth(i, width * 256);
+            }
+        }
+        recordBody(context, startTime, fetchNanos, rowCount, cols);
+        return sheets.getLine() + 2;
+    }
+
+    /**
+     * 记录表体指标：取数耗时单独计入 FETCH，其余计入 BODY
+     */
+    static void recordBody(WorkbookContext context, long startTime, long fetchNanos, int rows, int columns) {
+        ExportMetrics metrics = context.getMetrics();
+        metrics.addTime(ExportMetrics.Phase.FETCH, fetchNanos);
+        metrics.addTime(ExportMetrics.Phase.BODY, System.nanoTime() - startTime - fetchNanos);
+        metrics.addRows(rows, columns);
+    }
+
+    /**
+     * 在转换线程中取值并转换一批数据
+     */
+    private static RowBatch convertBatch(Object[] rows, int size, String[] fieldNames, Map<Class<?>, RowLayout> layouts, WorkbookContext context) {
+        RowBatch batch = new RowBatch(size);
+        for (int r = 0; r < size; r++) {
+            Object rowData = rows[r];
+            RowLayout layout = layouts.computeIfAbsent(rowData.getClass(), rowClass -> {
+                PropertyAccessor[] accessors = PropertyAccessor.of(rowClass, fieldNames);
+                return new RowLayout(accessors, context.getConverters().resolve(accessors));
+            });
+            Object[] values = new Object[fieldNames.length];
+            for (int i = 0; i < fieldNames.length; i++) {
+                if (layout.accessors[i].isPresent()) {
+                    Object value = getValue(layout.accessors[i], rowData);
+                    values[i] = value == null ? null : layout.converters[i].convert(value);
+                }
+            }
+            batch.layouts[r] = layout;
+            batch.values[r] = values;
+        }
+        return batch;
+    }
+
+    /**
+     * 某个数据类型的各列取值器和转换器
+     */
+    private static class RowLayout {
+        final PropertyAccessor[] accessors;
+        final CellConverter[] converters;
+
+        RowLayout(PropertyAccessor[] accessors, CellConverter[] converters) {
+            this.accessors = accessors;
+            this.converters = converters;
+        }
+    }
+
+    /**
+     * 已转换、可直接写入的一批行
+     */
+    private static class RowBatch {
+        final int size;
+        final RowLayout[] layouts;
+        final Object[][] values;
+
+        RowBatch(int size) {
+            this.size = size;
+            this.layouts = new RowLayout[size];
+            this.values = new Object[size][];
+        }
+    }
+
+    private static void setCellValue(String fieldName, PropertyAccessor accessor, Object obj, Cell cell, CellStyle cellStyle) {
+        cell.setCellStyle(cellStyle);
+        if (!accessor.isPresent()) {
+            // 没有对应字段时按常量输出
+            cell.setCellValue(fieldName);
+            return;
+        }
+        WorkbookContext context = WorkbookContext.of(cell.getSheet().getWorkbook());
+        CellConverter converter = context.getConverters().resolve(accessor);
+        CellStyle dateStyle = converter.getPattern() == null ? null : context.getStyles().getDateCellStyle(cellStyle, converter.getPattern());
+        setCellValue(cell, converter, getValue(accessor, obj), dateStyle);
+    }
+
+    /**
+     * 按转换器的类型写入单元格
+     *
+     * @param cell
+     * @param converter
+     * @param value
+     * @param dateStyle 日期单元格样式
+     */
+    private static void setCellValue(Cell cell, CellConverter converter, Object value, CellStyle dateStyle) {
+        setConvertedCellValue(cell, converter, convertValue(converter, value), dateStyle);
+    }
+
+    /**
+     * 取字段值：getter 抛出的异常记录后按导出失败抛出
+     *
+     * @param accessor
+     * @param obj
+     * @return
+     */
+    static Object getValue(PropertyAccessor accessor, Object obj) {
+        try {
+            return accessor.get(obj);
+        } catch (Exception e) {
+            logger.error("导出文件数据失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+    }
+
+    /**
+     * 转换为单元格的值
+     *
+     * @param converter
+     * @param value
+     * @return value 为 null 时返回 null
+     */
+    static Object convertValue(CellConverter converter, Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return converter.convert(value);
+        } catch (Exception e) {
+            logger.error("导出文件数据失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+    }
+
+    /**
+     * 写入已转换的值：文本列按字典编码
+     *
+     * @param cell
+     * @param converter
+     * @param cellValue
+     * @param dateStyle
+     * @param dictionary 该列的字典编码器，为 null 时不编码
+     */
+    static void setConvertedCellValue(Cell cell, CellConverter converter, Object cellValue, CellStyle dateStyle, StringDictionary.Column dictionary) {
+        if (dictionary != null && cellValue != null && converter.getKind() == CellKind.STRING) {
+            dictionary.setCellValue(cell, (String) cellValue);
+            return;
+        }
+        setConvertedCellValue(cell, converter, cellValue, dateStyle);
+    }
+
+    /**
+     * 写入已转换的值
+     *
+     * @param cell
+     * @param converter
+     * @param cellValue converter.convert 的结果，为 null 时写入空字符串
+     * @param dateStyle
+     */
+    private static void setConvertedCellValue(Cell cell, CellConverter converter, Object cellValue, CellStyle dateStyle) {
+        if (cellValue == null) {
+            cell.setCellValue("");
+            return;
+        }
+        switch (converter.getKind()) {
+            case NUMERIC:
+                cell.setCellValue((Double) cellValue);
+                return;
+            case DATE:
+                setDateCellValue(cell, (Date) cellValue, dateStyle);
+                return;
+            case BOOLEAN:
+                cell.setCellValue((Boolean) cellValue);
+                return;
+            case DYNAMIC:
+                if (cellValue instanceof Double) {
+                    cell.setCellValue((Double) cellValue);
+                    return;
+                } else if (cellValue instanceof Date) {
+                    setDateCellValue(cell, (Date) cellValue, dateStyle);
+                    return;
+                } else if (cellValue instanceof Boolean) {
+                    cell.setCellValue((Boolean) cellValue);
+                    return;
+                }
+                cell.setCellValue(cellValue.toString());
+                return;
+            default:
+                cell.setCellValue(cellValue.toString());
+        }
+    }
+
+    private static void setDateCellValue(Cell cell, Date value, CellStyle dateStyle) {
+        cell.setCellValue(value);
+        cell.setCellStyle(dateStyle);
+    }
+
+    /**
+     * 已转换的值的显示宽度，用于自动设置列宽
+     *
+     * @param converter
+     * @param cellValue
+     * @return 字符数
+     */
+    private static int getCellWidth(CellConverter converter, Object cellValue) {
+        if (cellValue == null) {
+            return 0;
+        } else if (cellValue instanceof Double) {
+            return DisplayWidth.of((double) (Double) cellValue);
+        } else if (cellValue instanceof Date) {
+            // 日期格式中的数字占位与显示宽度一致
+            return DisplayWidth.of(converter.getPattern());
+        } else if (cellValue instanceof Boolean) {
+            return 5;
+        }
+        return DisplayWidth.of(cellValue.toString());
+    }
+
+    private static CellStyle[] getDateCellStyles(CellConverter[] converters, CellStyle baseStyle, WorkbookContext context) {
+        CellStyle[] dateStyles = new CellStyle[converters.length];
+        for (int i = 0; i < converters.length; i++) {
+            if (converters[i].getPattern() != null) {
+                dateStyles[i] = context.getStyles().getDateCellStyle(baseStyle, converters[i].getPattern());
+            }
+        }
+        return dateStyles;
+    }
+
+    /**
+     * 文件后缀：HSSFWorkbook 为 .xls，其余为 .xlsx
+     *
+     * @param workbook
+     * @return
+     */
+    public static String getFileSuffix(Workbook workbook) {
+        return workbook instanceof HSSFWorkbook ? ".xls" : ".xlsx";
+    }
+
+    private static String getContentType(Workbook workbook) {
+        return workbook instanceof HSSFWorkbook ? XLS_CONTENT_TYPE : XLSX_CONTENT_TYPE;
+    }
+
+    /**
+     * 根据表头自动设置列宽
+     *
+     * @param headNames
+     * @param sheet
      */
     public static void setColWidth(String[] headNames, Sheet sheet) {
-        int length;
+        ColumnWidthStrategy strategy = WorkbookContext.of(sheet.getWorkbook()).getColumnWidthStrategy();
         for (int i = 0, len = headNames.length; i < len; i++) {
-            length = headNames[i].getBytes().length;
-            length = length < DEFAULT_COL_WIDTH ? DEFAULT_COL_WIDTH : length;
-            sheet.setColumnWidth(i, length * 256);
+            sheet.setColumnWidth(i, strategy.width(headNames[i]) * 256);
         }
     }
 
@@ -648,7 +1689,7 @@ public class ExcelExportUtil {
      * @param workbook
      * @return
      */
-    public static int createSheetTitle(int length, String sheetName, Sheet sheet, HSSFWorkbook workbook) {
+    public static int createSheetTitle(int length, String sheetName, Sheet sheet, Workbook workbook) {
         Row row = sheet.createRow(0);
         Cell cell = row.createCell(0);
         cell.setCellValue(sheetName);
@@ -659,108 +1700,73 @@ public class ExcelExportUtil {
     }
 
     /**
-     * 获取sheet标题单元格样式
+     * 获取sheet标题单元格样式：同一workbook只创建一次，返回共享实例，请勿修改
+     *
+     * @param workbook
+     * @return
+     */
+    public static CellStyle getSheetTitleCellStyle(Workbook workbook) {
+        return WorkbookContext.of(workbook).getStyles().get(StyleRegistry.SHEET_TITLE);
+    }
+
+    /**
+     * 获取表标题单元格样式：同一workbook只创建一次，返回共享实例，请勿修改
      *
      * @param workbook
      * @return
      */
-    public static CellStyle getSheetTitleCellStyle(HSSFWorkbook workbook) {
-        HSSFCellStyle style = workbook.createCellStyle();
-        style.setAlignment(HorizontalAlignment.CENTER);// 左右居中
-        style.setVerticalAlignment(VerticalAlignment.CENTER);// 上下居中
-        HSSFFont font = workbook.createFont();
-        font.setFontHeightInPoints((short) 14);
-        font.setBold(true);
-        style.setFont(font);
-        return style;
+    public static CellStyle getTableTitleCellStyle(Workbook workbook) {
+        return WorkbookContext.of(workbook).getStyles().get(StyleRegistry.TABLE_TITLE);
     }
 
     /**
-     * 获取表标题单元格样式
+     * 获取表头合并单元格样式：同一workbook只创建一次，返回共享实例，请勿修改
      *
      * @param workbook
      * @return
      */
-    public static CellStyle getTableTitleCellStyle(HSSFWorkbook workbook) {
-        HSSFCellStyle style = workbook.createCellStyle();
-        style.setAlignment(HorizontalAlignment.CENTER);// 左右居中
-        style.setVerticalAlignment(VerticalAlignment.CENTER);// 上下居中
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        HSSFFont font = workbook.createFont();
-        font.setFontHeightInPoints((short) 12);
-        font.setBold(true);
-        style.setFont(font);
-        return style;
+    public static CellStyle getTableHeadRangeCellStyle(Workbook workbook) {
+        return WorkbookContext.of(workbook).getStyles().get(StyleRegistry.TABLE_HEAD_RANGE);
     }
 
     /**
-     * 获取表头合并单元格样式
+     * 获取表头单元格样式：同一workbook只创建一次，返回共享实例，请勿修改
      *
      * @param workbook
      * @return
      */
-    public static CellStyle getTableHeadRangeCellStyle(HSSFWorkbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setAlignment(HorizontalAlignment.CENTER);// 左右居中
-        style.setVerticalAlignment(VerticalAlignment.CENTER);// 上下居中
-        style.setWrapText(true);
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        HSSFFont font = workbook.createFont();
-        font.setBold(true);
-        style.setFont(font);
-        return style;
+    public static CellStyle getTableHeadCellStyle(Workbook workbook) {
+        return WorkbookContext.of(workbook).getStyles().get(StyleRegistry.TABLE_HEAD);
     }
 
     /**
-     * 获取表头单元格样式
+     * 获取表体合并单元格样式：同一workbook只创建一次，返回共享实例，请勿修改
      *
      * @param workbook
      * @return
      */
-    public static CellStyle getTableHeadCellStyle(HSSFWorkbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setAlignment(HorizontalAlignment.CENTER);// 左右居中
-        style.setVerticalAlignment(VerticalAlignment.CENTER);// 上下居中
-        style.setWrapText(true);
-        HSSFFont font = workbook.createFont();
-        font.setBold(true);
-        style.setFont(font);
-        return style;
+    public static CellStyle getTableBodyRangeCellStyle(Workbook workbook) {
+        return WorkbookContext.of(workbook).getStyles().get(StyleRegistry.TABLE_BODY_RANGE);
     }
 
     /**
-     * 获取表体合并单元格样式
+     * 获取表体单元格样式：同一workbook只创建一次，返回共享实例，请勿修改
      *
      * @param workbook
      * @return
      */
-    public static CellStyle getTableBodyRangeCellStyle(HSSFWorkbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setAlignment(HorizontalAlignment.CENTER);// 左右居中
-        style.setVerticalAlignment(VerticalAlignment.CENTER);// 上下居中
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        return style;
+    public static CellStyle getTableBodyCellStyle(Workbook workbook) {
+        return WorkbookContext.of(workbook).getStyles().get(StyleRegistry.TABLE_BODY);
     }
 
     /**
-     * 获取表体单元格样式
+     * 获取自定义样式：属性相同的样式在同一workbook中只创建一次
      *
+     * @param spec
      * @param workbook
      * @return
      */
-    public static CellStyle getTableBodyCellStyle(HSSFWorkbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        return style;
+    public static CellStyle getCellStyle(CellStyleSpec spec, Workbook workbook) {
+        return WorkbookContext.of(workbook).getStyles().get(spec);
     }
 }
@@ -0,0 +1,603 @@
+package oger.util;
+
+import org.apache.poi.hssf.eventusermodel.*;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 流式导入excel
+ * xls 使用 HSSF 事件模型，xlsx 使用 XSSF SAX 解析，不构建 Workbook 对象，内存中只保留当前行和一批数据；
+ * 表头使用与导出相同的 headMap / 多级表头定义(ExcelLayout)，按表头名称找到文件中的列，列顺序可以与定义不同；
+ * 每解析满 batchSize 行回调一次，回调中可直接批量入库
+ */
+public class ExcelImportUtil {
+
+    private static Logger logger = LoggerFactory.getLogger(ExcelImportUtil.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;     // 默认每批行数
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter[] DATE_TIME_PATTERNS = {
+            DATE_TIME_FORMATTER,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm")
+    };
+    private static final DateTimeFormatter[] DATE_PATTERNS = {
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+            DateTimeFormatter.ofPattern("yyyyMMdd")
+    };
+
+    /**
+     * 快捷导入: 单行表头 表头在第一行 读取第一个sheet
+     *
+     * @param in       上传的文件，xls 或 xlsx
+     * @param headMap  字段名 -> 表头名称，与导出时相同
+     * @param type     实体类(需有无参构造器和 setter)，或 Map(字段名 -> 单元格文本)
+     * @param consumer 每批数据的回调
+     * @param <T>
+     * @return 导入的行数
+     */
+    public static <T> int importExcel(InputStream in, Map<String, String> headMap, Class<T> type, Consumer<List<T>> consumer) {
+        return importExcel(in, 0, ExcelLayout.ofHead(headMap), 0, type, DEFAULT_BATCH_SIZE, consumer);
+    }
+
+    /**
+     * 导入: 表头按编译好的布局(单行、二级、多级表头) 表头在第一行 读取第一个sheet
+     *
+     * @param in
+     * @param layout    ExcelLayout.ofHead / of2LevelHead / ofMultiLevelHead
+     * @param type
+     * @param batchSize 每批行数
+     * @param consumer
+     * @param <T>
+     * @return 导入的行数
+     */
+    public static <T> int importExcel(InputStream in, ExcelLayout layout, Class<T> type, int batchSize, Consumer<List<T>> consumer) {
+        return importExcel(in, 0, layout, 0, type, batchSize, consumer);
+    }
+
+    /**
+     * 导入: 指定sheet和表头起始行
+     *
+     * @param in
+     * @param sheetIndex sheet下标，从0开始
+     * @param layout     表头布局
+     * @param headLine   表头第一行的行号(有表标题时为1)，从0开始
+     * @param type       实体类或 Map
+     * @param batchSize  每批行数
+     * @param consumer   每批数据的回调，列表在回调后不再使用，可直接保存
+     * @param <T>
+     * @return 导入的行数
+     */
+    public static <T> int importExcel(InputStream in, int sheetIndex, ExcelLayout layout, int headLine, Class<T> type,
+                                      int batchSize, Consumer<List<T>> consumer) {
+        if (layout.fieldNames() == null) {
+            throw new IllegalArgumentException("对象表格布局不能用于导入");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 必须大于0");
+        }
+        RowCollector<T> collector = new RowCollector<>(layout, headLine, type, batchSize, consumer);
+        File file = null;
+        try {
+            // 先落盘：两种格式都从文件随机读取，避免把整个文件解压到内存
+            file = Files.createTempFile("excel-import", ".tmp").toFile();
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            FileMagic magic = FileMagic.valueOf(file);
+            if (magic == FileMagic.OLE2) {
+                readHssf(file, sheetIndex, collector);
+            } else if (magic == FileMagic.OOXML) {
+                readXssf(file, sheetIndex, collector);
+            } else {
+                throw new IllegalArgumentException("不支持的文件格式，请上传 xls 或 xlsx 文件");
+            }
+            return collector.finish();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("导入文件失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导入文件失败");
+        } finally {
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * xls: HSSF 事件模型，读完目标sheet后停止
+     */
+    private static void readHssf(File file, int sheetIndex, RowCollector<?> collector) throws IOException, HSSFUserException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true);
+             InputStream workbook = fs.createDocumentInputStream(HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot()))) {
+            HSSFRequest request = new HSSFRequest();
+            HssfSheetListener listener = new HssfSheetListener(sheetIndex, collector);
+            request.addListenerForAllRecords(listener);
+            new HSSFEventFactory().abortableProcessEvents(request, workbook);
+            if (!listener.isSheetFound()) {
+                throw new IllegalArgumentException("文件中没有第 " + (sheetIndex + 1) + " 个sheet");
+            }
+        }
+    }
+
+    /**
+     * xlsx: SAX 逐行解析目标sheet，共享字符串表只读加载
+     */
+    private static void readXssf(File file, int sheetIndex, RowCollector<?> collector) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                try (InputStream sheet = sheets.next()) {
+                    if (i != sheetIndex) {
+                        continue;
+                    }
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings,
+                            new XssfSheetHandler(collector), new RawValueFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("文件中没有第 " + (sheetIndex + 1) + " 个sheet");
+        }
+    }
+
+    /**
+     * 单元格文本转为字段类型
+     *
+     * @param text  单元格文本，数值为不带格式的原始值，日期为 yyyy-MM-dd HH:mm:ss
+     * @param clazz 字段类型
+     * @return
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Object parseValue(String text, Class<?> clazz) {
+        if (clazz == String.class || clazz == Object.class) {
+            return text;
+        }
+        String value = text.trim();
+        if (clazz == Integer.class || clazz == int.class) {
+            return new BigDecimal(value).intValueExact();
+        } else if (clazz == Long.class || clazz == long.class) {
+            return new BigDecimal(value).longValueExact();
+        } else if (clazz == Short.class || clazz == short.class) {
+            return new BigDecimal(value).shortValueExact();
+        } else if (clazz == Byte.class || clazz == byte.class) {
+            return new BigDecimal(value).byteValueExact();
+        } else if (clazz == Double.class || clazz == double.class) {
+            return Double.valueOf(value);
+        } else if (clazz == Float.class || clazz == float.class) {
+            return Float.valueOf(value);
+        } else if (clazz == BigDecimal.class) {
+            return new BigDecimal(value);
+        } else if (clazz == BigInteger.class) {
+            return new BigDecimal(value).toBigIntegerExact();
+        } else if (clazz == Boolean.class || clazz == boolean.class) {
+            return parseBoolean(value);
+        } else if (clazz == Date.class) {
+            return Date.from(parseDateTime(value).atZone(ZoneId.systemDefault()).toInstant());
+        } else if (clazz == LocalDateTime.class) {
+            return parseDateTime(value);
+        } else if (clazz == LocalDate.class) {
+            return parseDateTime(value).toLocalDate();
+        } else if (clazz.isEnum()) {
+            return Enum.valueOf((Class<Enum>) clazz, value);
+        }
+        throw new IllegalArgumentException("不支持导入的字段类型：" + clazz.getName());
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value) || "是".equals(value) || "1".equals(value)) {
+            return Boolean.TRUE;
+        } else if ("false".equalsIgnoreCase(value) || "否".equals(value) || "0".equals(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("无法识别的布尔值：" + value);
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        for (DateTimeFormatter formatter : DATE_TIME_PATTERNS) {
+            try {
+                return LocalDateTime.parse(value, formatter);
+            } catch (DateTimeParseException e) {
+                // 尝试下一种格式
+            }
+        }
+        for (DateTimeFormatter formatter : DATE_PATTERNS) {
+            try {
+                return LocalDate.parse(value, formatter).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // 尝试下一种格式
+            }
+        }
+        throw new IllegalArgumentException("无法识别的日期：" + value);
+    }
+
+    /**
+     * 数值单元格输出原始值(不按显示格式取舍)，日期单元格统一输出 yyyy-MM-dd HH:mm:ss，两种格式的文件结果一致
+     */
+    private static class RawValueFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).format(DATE_TIME_FORMATTER);
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /**
+     * HSSF 记录监听：只处理目标sheet的单元格记录，目标sheet结束后中止解析
+     */
+    private static class HssfSheetListener extends AbortableHSSFListener {
+        private final int sheetIndex;
+        private final RowCollector<?> collector;
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(record -> {
+        });
+        private final RawValueFormatter formatter = new RawValueFormatter();
+        private SSTRecord sst;
+        private int sheet = -1;
+        private int formulaRow = -1;
+        private int formulaCol = -1;
+
+        HssfSheetListener(int sheetIndex, RowCollector<?> collector) {
+            this.sheetIndex = sheetIndex;
+            this.collector = collector;
+        }
+
+        /**
+         * 是否读到了目标sheet
+         */
+        boolean isSheetFound() {
+            return sheetIndex >= 0 && sheet >= sheetIndex;
+        }
+
+        @Override
+        public short abortableProcessRecord(org.apache.poi.hssf.record.Record record) {
+            formats.processRecordInternally(record);
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        sheet++;
+                    }
+                    return 0;
+                case EOFRecord.sid:
+                    return (short) (sheet == sheetIndex ? 1 : 0);
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    return 0;
+                default:
+                    break;
+            }
+            if (sheet != sheetIndex) {
+                return 0;
+            }
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    collector.cell(label.getRow(), label.getColumn(), sst.getString(label.getSSTIndex()).getString());
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord text = (LabelRecord) record;
+                    collector.cell(text.getRow(), text.getColumn(), text.getValue());
+                    break;
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    collector.cell(number.getRow(), number.getColumn(), formatNumber(number.getValue(), number));
+                    break;
+                case RKRecord.sid:
+                    RKRecord rk = (RKRecord) record;
+                    collector.cell(rk.getRow(), rk.getColumn(), formatNumber(rk.getRKNumber(), rk));
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord bool = (BoolErrRecord) record;
+                    if (bool.isBoolean()) {
+                        collector.cell(bool.getRow(), bool.getColumn(), String.valueOf(bool.getBooleanValue()));
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    FormulaRecord formula = (FormulaRecord) record;
+                    if (formula.hasCachedResultString()) {
+                        // 字符串结果在紧随其后的 StringRecord 中
+                        formulaRow = formula.getRow();
+                        formulaCol = formula.getColumn();
+                    } else {
+                        CellType resultType = getCachedResultType(formula);
+                        if (resultType == CellType.BOOLEAN) {
+                            collector.cell(formula.getRow(), formula.getColumn(), String.valueOf(formula.getCachedBooleanValue()));
+                        } else if (resultType == CellType.NUMERIC) {
+                            collector.cell(formula.getRow(), formula.getColumn(), formatNumber(formula.getValue(), formula));
+                        }
+                    }
+                    break;
+                case StringRecord.sid:
+                    if (formulaRow >= 0) {
+                        collector.cell(formulaRow, formulaCol, ((StringRecord) record).getString());
+                        formulaRow = -1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return 0;
+        }
+
+        /**
+         * 公式的缓存结果类型：POI 4.1.2 的 FormulaRecord 只提供 int 编码，转换为 CellType 只在这里使用过渡 API
+         */
+        @SuppressWarnings("deprecation")
+        private static CellType getCachedResultType(FormulaRecord formula) {
+            return CellType.forInt(formula.getCachedResultType());
+        }
+
+        private String formatNumber(double value, CellValueRecordInterface record) {
+            return formatter.formatRawCellContents(value, formats.getFormatIndex(record), formats.getFormatString(record));
+        }
+    }
+
+    /**
+     * XSSF SAX 回调
+     */
+    private static class XssfSheetHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowCollector<?> collector;
+        private int row;
+
+        XssfSheetHandler(RowCollector<?> collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            row = rowNum;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference != null) {
+                collector.cell(row, new CellReference(cellReference).getCol(), formattedValue);
+            }
+        }
+    }
+
+    /**
+     * 按行收集单元格：表头行用于确定列与字段的对应关系，表体行转换成对象后攒批回调
+     */
+    private static class RowCollector<T> {
+        private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+        private final int headLine;
+        private final int headRows;
+        private final String[] fieldNames;
+        private final String[] expectedNames;
+        private String[] headerTexts;
+        private final Class<T> type;
+        private final boolean mapType;
+        private final MethodHandle constructor;
+        private final int batchSize;
+        private final Consumer<List<T>> consumer;
+
+        private String[] cells = new String[16];
+        private int currentRow = -1;
+        private int[] columnFields;             // 文件列 -> 字段下标，-1 为未映射
+        private PropertySetter[] setters;
+        private List<T> batch;
+        private int count;
+
+        RowCollector(ExcelLayout layout, int headLine, Class<T> type, int batchSize, Consumer<List<T>> consumer) {
+            this.headLine = headLine;
+            this.headRows = layout.getRowCount();
+            this.fieldNames = layout.fieldNames();
+            this.expectedNames = expectedNames(layout);
+            this.headerTexts = new String[layout.getColumnCount()];
+            this.type = type;
+            this.mapType = Map.class.isAssignableFrom(type);
+            this.constructor = mapType ? null : constructor(type);
+            this.batchSize = batchSize;
+            this.consumer = consumer;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        /**
+         * 布局中每列的表头名称：底行名称，底行被纵向合并时取合并区域顶端的名称
+         */
+        private static String[] expectedNames(ExcelLayout layout) {
+            String[] names = new String[layout.fieldNames().length];
+            for (int col = 0; col < names.length; col++) {
+                for (int i = layout.getRowCount() - 1; i >= 0 && names[col] == null; i--) {
+                    for (ExcelLayout.Segment segment : layout.getRow(i)) {
+                        if (col >= segment.col && col < segment.col + segment.span) {
+                            if (!segment.isCovered()) {
+                                names[col] = segment.text;
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+            return names;
+        }
+
+        private static MethodHandle constructor(Class<?> type) {
+            try {
+                return MethodHandles.lookup().findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException(type.getName() + " 没有可访问的无参构造器", e);
+            }
+        }
+
+        void cell(int row, int col, String text) {
+            if (row != currentRow) {
+                endRow();
+                currentRow = row;
+            }
+            if (col >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(col + 1, cells.length * 2));
+            }
+            cells[col] = text;
+        }
+
+        private void endRow() {
+            if (currentRow < 0) {
+                return;
+            }
+            if (currentRow >= headLine && currentRow < headLine + headRows) {
+                readHeader();
+            } else if (currentRow >= headLine + headRows) {
+                if (columnFields == null) {
+                    mapColumns();
+                }
+                readBody();
+            }
+            Arrays.fill(cells, null);
+        }
+
+        /**
+         * 表头每列取最下面的非空文本(纵向合并的单元格只有顶端有值)
+         */
+        private void readHeader() {
+            if (headerTexts.length < cells.length) {
+                headerTexts = Arrays.copyOf(headerTexts, cells.length);
+            }
+            for (int col = 0; col < cells.length; col++) {
+                if (cells[col] != null && !cells[col].trim().isEmpty()) {
+                    headerTexts[col] = cells[col].trim();
+                }
+            }
+        }
+
+        /**
+         * 按名称匹配列：同名的表头按出现顺序一一对应
+         */
+        private void mapColumns() {
+            columnFields = new int[headerTexts.length];
+            Arrays.fill(columnFields, -1);
+            setters = new PropertySetter[fieldNames.length];
+            boolean[] used = new boolean[headerTexts.length];
+            int mapped = 0;
+            for (int field = 0; field < fieldNames.length; field++) {
+                int col = 0;
+                while (col < headerTexts.length && (used[col] || !Objects.equals(headerTexts[col], expectedNames[field]))) {
+                    col++;
+                }
+                if (col == headerTexts.length) {
+                    logger.warn("导入文件中没有表头 {}，字段 {} 不导入", expectedNames[field], fieldNames[field]);
+                    continue;
+                }
+                if (!mapType) {
+                    setters[field] = PropertySetter.of(type, fieldNames[field]);
+                    if (!setters[field].isPresent()) {
+                        continue;
+                    }
+                }
+                used[col] = true;
+                columnFields[col] = field;
+                mapped++;
+            }
+            if (mapped == 0) {
+                throw new IllegalArgumentException("导入文件的表头与模板不一致");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readBody() {
+            Object obj = null;
+            for (int col = 0; col < columnFields.length && col < cells.length; col++) {
+                int field = columnFields[col];
+                String text = cells[col];
+                if (field < 0 || text == null || text.isEmpty()) {
+                    continue;
+                }
+                if (obj == null) {
+                    obj = newInstance();
+                }
+                if (mapType) {
+                    ((Map<String, Object>) obj).put(fieldNames[field], text);
+                    continue;
+                }
+                try {
+                    setters[field].set(obj, parseValue(text, setters[field].getType()));
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    throw new IllegalArgumentException("第 " + (currentRow + 1) + " 行 " + expectedNames[field] + " 的值 " + text + " 格式不正确", e);
+                }
+            }
+            if (obj == null) {
+                // 空行
+                return;
+            }
+            batch.add((T) obj);
+            count++;
+            if (batch.size() >= batchSize) {
+                consumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        private Object newInstance() {
+            if (mapType) {
+                return new LinkedHashMap<String, Object>();
+            }
+            try {
+                return constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("创建 " + type.getName() + " 失败", e);
+            }
+        }
+
+        int finish() {
+            endRow();
+            currentRow = -1;
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+                batch = new ArrayList<>(0);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package oger.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 编译后的表格布局
+ * 由表头Map、多级表头List、对象表格定义编译而来，预先算好每个单元格的位置、横向/纵向合并数、表体字段和样式，不可变；
+ * 布局不随请求变化时用 {@link #cached(String, Supplier)} 缓存，每次导出只需写数据
+ */
+public final class ExcelLayout {
+
+    private static final Map<String, ExcelLayout> CACHE = new ConcurrentHashMap<>();
+
+    private final Segment[][] rows;
+    private final int columnCount;
+    private final String[] fieldNames;   // 表体字段名，对象表格为 null
+    private final String[] keys;         // 对象表格引用的字段名(含常量)
+    private final CellStyleSpec style;
+    private final CellStyleSpec rangeStyle;
+    private final Map<Class<?>, PropertyAccessor[]> accessors = new ConcurrentHashMap<>();
+
+    private ExcelLayout(List<List<Segment>> rows, String[] fieldNames, String[] keys, CellStyleSpec style, CellStyleSpec rangeStyle) {
+        this.rows = new Segment[rows.size()][];
+        int columnCount = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            this.rows[i] = rows.get(i).toArray(new Segment[0]);
+            for (Segment segment : this.rows[i]) {
+                columnCount = Math.max(columnCount, segment.col + (segment.listFields == null ? segment.span : segment.listFields.length));
+            }
+        }
+        this.columnCount = columnCount;
+        this.fieldNames = fieldNames;
+        this.keys = keys;
+        this.style = style;
+        this.rangeStyle = rangeStyle;
+    }
+
+    /**
+     * 按 key 缓存布局，不存在时编译
+     *
+     * @param key
+     * @param compiler 如 () -> ExcelLayout.ofMultiLevelHead(getMergeHeads())
+     * @return
+     */
+    public static ExcelLayout cached(String key, Supplier<ExcelLayout> compiler) {
+        return CACHE.computeIfAbsent(key, k -> compiler.get());
+    }
+
+    /**
+     * 单行表头
+     *
+     * @param headMap 字段名 -> 表头名称，要求是LinkedHashMap类型
+     * @return
+     */
+    public static ExcelLayout ofHead(Map<String, String> headMap) {
+        List<Segment> row = new ArrayList<>(headMap.size());
+        int index = 0;
+        for (String headName : headMap.values()) {
+            row.add(new Segment(index++, 1, 1, headName, -1, null));
+        }
+        return new ExcelLayout(Collections.singletonList(row), headMap.keySet().toArray(new String[0]), null,
+                StyleRegistry.TABLE_HEAD, StyleRegistry.TABLE_HEAD);
+    }
+
+    /**
+     * 二级树形表头
+     *
+     * @param mergeHeadMap 外层Map的key为第一行名称，value为子表头Map；里层Map的key为字段名，value为名称；Map采用LinkedHashMap
+     * @return
+     */
+    public static ExcelLayout of2LevelHead(Map<String, Map<String, String>> mergeHeadMap) {
+        List<Segment> row1 = new ArrayList<>();
+        List<Segment> row2 = new ArrayList<>();
+        List<String> fieldNames = new ArrayList<>();
+        int index = 0;
+        for (Map.Entry<String, Map<String, String>> entry : mergeHeadMap.entrySet()) {
+            Map<String, String> children = entry.getValue();
+            if (children.size() < 1) {
+                continue;
+            }
+            if (children.size() == 1) {
+                // 只有一个子表头时纵向合并两行
+                row1.add(new Segment(index, 1, 2, entry.getKey(), -1, null));
+                row2.add(new Segment(index, 1, 0, null, -1, null));
+                fieldNames.addAll(children.keySet());
+                index++;
+            } else {
+                row1.add(new Segment(index, children.size(), 1, entry.getKey(), -1, null));
+                for (Map.Entry<String, String> child : children.entrySet()) {
+                    row2.add(new Segment(index++, 1, 1, child.getValue(), -1, null));
+                    fieldNames.add(child.getKey());
+                }
+            }
+        }
+        return new ExcelLayout(Arrays.asList(row1, row2), fieldNames.toArray(new String[0]), null,
+                StyleRegistry.TABLE_HEAD_RANGE, StyleRegistry.TABLE_HEAD_RANGE);
+    }
+
+    /**
+     * 多级表头
+     *
+     * @param mergeHeads 表头每一行对应一个Map<String,Object>；非底行的key为名称，value为合并单元格数量；底行的key为字段名，value为名称；
+     *                   竖向单元格合并的应在每行Map中都有；Map采用LinkedHashMap
+     * @return
+     */
+    public static ExcelLayout ofMultiLevelHead(List<Map<String, Object>> mergeHeads) {
+        int headRows = mergeHeads.size();
+        int cols = mergeHeads.get(headRows - 1).size();
+        String[] fieldNames = new String[cols];
+        //创建表头二维数组
+        String[][] cells = new String[headRows][cols];
+        for (int i = 0; i < headRows; i++) {
+            int index = 0;
+            for (Map.Entry<String, Object> entry : mergeHeads.get(i).entrySet()) {
+                if (i < headRows - 1) {
+                    int value = Integer.parseInt(entry.getValue().toString());
+                    while (value-- > 0) {
+                        cells[i][index++] = entry.getKey();
+                    }
+                } else {
+                    cells[i][index] = entry.getValue().toString();
+                    fieldNames[index++] = entry.getKey();
+                }
+            }
+        }
+        MergePlanner planner = new MergePlanner(cells);
+        List<List<Segment>> rows = new ArrayList<>(headRows);
+        for (int i = 0; i < headRows; i++) {
+            List<Segment> row = new ArrayList<>();
+            int index = 0;
+            for (Map.Entry<String, Object> entry : mergeHeads.get(i).entrySet()) {
+                boolean bottom = i == headRows - 1;
+                int span = bottom ? 1 : Integer.parseInt(entry.getValue().toString());
+                int rowSpan = planner.isCovered(i, index) ? 0 : planner.getRowSpan(i, index);
+                row.add(new Segment(index, span, rowSpan, bottom ? entry.getValue().toString() : entry.getKey(), -1, null));
+                index += span;
+            }
+            rows.add(row);
+        }
+        return new ExcelLayout(rows, fieldNames, null, StyleRegistry.TABLE_HEAD_RANGE, StyleRegistry.TABLE_HEAD_RANGE);
+    }
+
+    /**
+     * 有集合属性字段的复杂对象表格
+     *
+     * @param names 每一行对应一个Map；单元格值为常量时key为此常量,value为合并单元格数量；
+     *              单元格值为变量时key为对象的非集合字段名，value为合并单元格数量；
+     *              当该行以下为集合时，key为对象的集合字段名，value为集合元素要显示的字段列表
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static ExcelLayout ofObject(List<Map<String, Object>> names) {
+        int rows = names.size();
+        //计算最大列数
+        int cols = 0;
+        for (Map<String, Object> map : names) {
+            int sum = 0;
+            for (Object value : map.values()) {
+                if (value instanceof Integer) {
+                    sum += (Integer) value;
+                } else if (value instanceof List) {
+                    sum = ((List<String>) value).size();
+                }
+            }
+            cols = Math.max(cols, sum);
+        }
+        //创建二维数组
+        String[][] cells = new String[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            int index = 0;
+            for (Map.Entry<String, Object> entry : names.get(i).entrySet()) {
+                if (entry.getValue() instanceof Integer) {
+                    int value = (Integer) entry.getValue();
+                    while (value-- > 0) {
+                        cells[i][index++] = entry.getKey();
+                    }
+                }
+            }
+        }
+        MergePlanner planner = new MergePlanner(cells);
+        Map<String, Integer> keys = new LinkedHashMap<>();
+        List<List<Segment>> layoutRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            List<Segment> row = new ArrayList<>();
+            int index = 0;
+            for (Map.Entry<String, Object> entry : names.get(i).entrySet()) {
+                Integer keyIndex = keys.computeIfAbsent(entry.getKey(), k -> keys.size());
+                if (entry.getValue() instanceof Integer) {  //非集合
+                    int span = (Integer) entry.getValue();
+                    int rowSpan = planner.isCovered(i, index) ? 0 : planner.getRowSpan(i, index);
+                    row.add(new Segment(index, span, rowSpan, entry.getKey(), keyIndex, null));
+                    index += span;
+                } else if (entry.getValue() instanceof List) {  //集合
+                    String[] listFields = ((List<String>) entry.getValue()).toArray(new String[0]);
+                    row.add(new Segment(0, 1, 1, entry.getKey(), keyIndex, listFields));
+                }
+            }
+            layoutRows.add(row);
+        }
+        return new ExcelLayout(layoutRows, null, keys.keySet().toArray(new String[0]),
+                StyleRegistry.TABLE_BODY, StyleRegistry.TABLE_BODY_RANGE);
+    }
+
+    /**
+     * 无集合属性字段的简单对象表格
+     *
+     * @param names 每一行对应一个Map，单元格值为常量时key为此常量,value为合并单元格数量；单元格值为变量时key为对象的字段名，value为合并单元格数量
+     * @return
+     */
+    public static ExcelLayout ofSimpleObject(List<Map<String, Integer>> names) {
+        List<Map<String, Object>> objectNames = new ArrayList<>(names.size());
+        for (Map<String, Integer> map : names) {
+            objectNames.add(new LinkedHashMap<>(map));
+        }
+        return ofObject(objectNames);
+    }
+
+    /**
+     * 布局行数：表头行数，或对象表格的行数(不含集合展开的行)
+     *
+     * @return
+     */
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    /**
+     * 列数
+     *
+     * @return
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * 合并区域数，用于估算导出占用的内存
+     *
+     * @return
+     */
+    public int getMergeCount() {
+        int count = 0;
+        for (Segment[] row : rows) {
+            for (Segment segment : row) {
+                if (!segment.isCovered() && segment.isMerged()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 表体字段名，与表头最后一行一一对应
+     *
+     * @return 对象表格为 null
+     */
+    public String[] getFieldNames() {
+        return fieldNames == null ? null : fieldNames.clone();
+    }
+
+    Segment[] getRow(int row) {
+        return rows[row];
+    }
+
+    String[] fieldNames() {
+        return fieldNames;
+    }
+
+    CellStyleSpec getStyle() {
+        return style;
+    }
+
+    CellStyleSpec getRangeStyle() {
+        return rangeStyle;
+    }
+
+    /**
+     * 对象表格各字段的取值器，每个类型只解析一次
+     *
+     * @param type
+     * @return 与 Segment#keyIndex 对应
+     */
+    PropertyAccessor[] getAccessors(Class<?> type) {
+        return accessors.computeIfAbsent(type, t -> PropertyAccessor.of(t, keys));
+    }
+
+    /**
+     * 布局中的一个单元格(可能横向跨多列)
+     */
+    static final class Segment {
+        final int col;
+        final int span;
+        final int rowSpan;          // 纵向合并行数，0 表示已包含在上方的合并区域中
+        final String text;          // 表头名称，或对象表格的字段名(常量)
+        final int keyIndex;         // 对象表格中字段在 keys 中的下标
+        final String[] listFields;  // 对象表格中集合元素要显示的字段，非集合为 null
+
+        Segment(int col, int span, int rowSpan, String text, int keyIndex, String[] listFields) {
+            this.col = col;
+            this.span = span;
+            this.rowSpan = rowSpan;
+            this.text = text;
+            this.keyIndex = keyIndex;
+            this.listFields = listFields;
+        }
+
+        boolean isCovered() {
+            return rowSpan == 0;
+        }
+
+        boolean isMerged() {
+            return rowSpan > 1 || span > 1;
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package oger.util;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 编译后的excel模板
+ * 表头、logo、列宽、单元格格式在 Excel 中设计好，用占位符标出要填的位置：
+ * ${字段名} 单值占位符，整格为占位符时按值的类型写入(数值、日期保留模板格式)，与其他文字混排时替换为文本；
+ * #{字段名} 重复行，每个模板只能有一行，每条数据按该行的样式和行高写一行；重复行之后的行(如合计)跟在数据之后输出，可以包含 ${} 占位符
+ * 编译时解析一次占位符位置、样式下标、重复行及其后各行的内容，并去掉重复行之后的行保存为模板内容；
+ * 每次填充只加载模板内容并写入数据，不再创建样式和表头。xlsx 模板按流式(SXSSF)填充，数据行不占用堆内存
+ * 注意：重复行之后各行中的公式原样复制，不随数据行数调整，合计请用 ${} 传入；锚定在重复行之后的图片不会随数据下移
+ */
+public final class ExcelTemplate {
+
+    private static Logger logger = LoggerFactory.getLogger(ExcelTemplate.class);
+
+    private static final Map<String, ExcelTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final Pattern VALUE_MARKER = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Pattern ROW_MARKER = Pattern.compile("#\\{([^}]+)}");
+
+    private final byte[] content;
+    private final boolean xls;
+    private final List<Anchor> anchors;
+    private final int sheetIndex;           // 重复行所在sheet，没有重复行时为 -1
+    private final int rowIndex;             // 重复行
+    private final short rowHeight;
+    private final String[] fieldNames;      // 重复行各列的字段名，常量列为 null
+    private final String[] constants;       // 重复行中的常量文本
+    private final int[] styleIndexes;       // 重复行各列的样式下标，-1 表示没有单元格
+    private final List<TrailerRow> trailer;
+    private final List<CellRangeAddress> trailerMerges;   // 行号相对于重复行
+
+    private ExcelTemplate(byte[] content, boolean xls, List<Anchor> anchors, int sheetIndex, int rowIndex, short rowHeight,
+                          String[] fieldNames, String[] constants, int[] styleIndexes, List<TrailerRow> trailer, List<CellRangeAddress> trailerMerges) {
+        this.content = content;
+        this.xls = xls;
+        this.anchors = anchors;
+        this.sheetIndex = sheetIndex;
+        this.rowIndex = rowIndex;
+        this.rowHeight = rowHeight;
+        this.fieldNames = fieldNames;
+        this.constants = constants;
+        this.styleIndexes = styleIndexes;
+        this.trailer = trailer;
+        this.trailerMerges = trailerMerges;
+    }
+
+    /**
+     * 按 key 缓存模板，不存在时编译
+     *
+     * @param key
+     * @param compiler 如 () -> ExcelTemplate.compile(new ClassPathResource("templates/students.xlsx").getInputStream())
+     * @return
+     */
+    public static ExcelTemplate cached(String key, Supplier<ExcelTemplate> compiler) {
+        return CACHE.computeIfAbsent(key, k -> compiler.get());
+    }
+
+    /**
+     * 编译模板：.xls 或 .xlsx，按文件内容识别
+     *
+     * @param in 读取后由调用方关闭
+     * @return
+     */
+    public static ExcelTemplate compile(InputStream in) {
+        try {
+            byte[] bytes = IOUtils.toByteArray(in);
+            try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(bytes))) {
+                return compile(workbook);
+            }
+        } catch (IOException e) {
+            logger.error("读取模板失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("读取模板失败");
+        }
+    }
+
+    private static ExcelTemplate compile(Workbook workbook) throws IOException {
+        List<Anchor> anchors = new ArrayList<>();
+        int sheetIndex = -1;
+        int rowIndex = -1;
+        for (int s = 0; s < workbook.getNumberOfSheets() && sheetIndex < 0; s++) {
+            for (Row row : workbook.getSheetAt(s)) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.STRING && ROW_MARKER.matcher(cell.getStringCellValue()).matches()) {
+                        sheetIndex = s;
+                        rowIndex = row.getRowNum();
+                        break;
+                    }
+                }
+                if (sheetIndex >= 0) {
+                    break;
+                }
+            }
+        }
+        for (int s = 0; s < workbook.getNumberOfSheets(); s++) {
+            for (Row row : workbook.getSheetAt(s)) {
+                if (s == sheetIndex && row.getRowNum() >= rowIndex) {
+                    continue;
+                }
+                for (Cell cell : row) {
+                    Anchor anchor = Anchor.of(s, row.getRowNum(), cell);
+                    if (anchor != null) {
+                        anchors.add(anchor);
+                    }
+                }
+            }
+        }
+        if (sheetIndex < 0) {
+            return new ExcelTemplate(toBytes(workbook), workbook instanceof HSSFWorkbook, anchors, -1, -1, (short) -1,
+                    new String[0], new String[0], new int[0], Collections.emptyList(), Collections.emptyList());
+        }
+        Sheet sheet = workbook.getSheetAt(sheetIndex);
+        Row row = sheet.getRow(rowIndex);
+        short rowHeight = row.getHeight();
+        int columns = Math.max(0, row.getLastCellNum());
+        String[] fieldNames = new String[columns];
+        String[] constants = new String[columns];
+        int[] styleIndexes = new int[columns];
+        Arrays.fill(styleIndexes, -1);
+        for (Cell cell : row) {
+            int col = cell.getColumnIndex();
+            styleIndexes[col] = cell.getCellStyle().getIndex() & 0xffff;
+            if (cell.getCellType() == CellType.STRING) {
+                Matcher matcher = ROW_MARKER.matcher(cell.getStringCellValue());
+                if (matcher.matches()) {
+                    fieldNames[col] = matcher.group(1).trim();
+                } else {
+                    constants[col] = cell.getStringCellValue();
+                }
+            }
+        }
+        // 重复行之后的行在每次填充时跟在数据之后写入
+        List<TrailerRow> trailer = new ArrayList<>();
+        for (int r = rowIndex + 1; r <= sheet.getLastRowNum(); r++) {
+            Row trailerRow = sheet.getRow(r);
+            if (trailerRow != null) {
+                trailer.add(TrailerRow.of(r - rowIndex, trailerRow));
+            }
+        }
+        List<CellRangeAddress> trailerMerges = new ArrayList<>();
+        List<Integer> removedMerges = new ArrayList<>();
+        for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+            CellRangeAddress region = sheet.getMergedRegion(i);
+            if (region.getLastRow() >= rowIndex) {
+                removedMerges.add(i);
+                if (region.getFirstRow() > rowIndex) {
+                    trailerMerges.add(new CellRangeAddress(region.getFirstRow() - rowIndex, region.getLastRow() - rowIndex,
+                            region.getFirstColumn(), region.getLastColumn()));
+                }
+            }
+        }
+        sheet.removeMergedRegions(removedMerges);
+        for (int r = sheet.getLastRowNum(); r >= rowIndex; r--) {
+            Row removed = sheet.getRow(r);
+            if (removed != null) {
+                sheet.removeRow(removed);
+            }
+        }
+        return new ExcelTemplate(toBytes(workbook), workbook instanceof HSSFWorkbook, anchors, sheetIndex, rowIndex, rowHeight,
+                fieldNames, constants, styleIndexes, trailer, trailerMerges);
+    }
+
+    private static byte[] toBytes(Workbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 填充模板
+     *
+     * @param values  单值占位符的取值：Map 或 JavaBean，可为 null
+     * @param dataset 重复行的数据
+     * @return 填充后的workbook，xls 模板为 HSSFWorkbook，xlsx 模板为流式workbook
+     */
+    public Workbook fill(Object values, Collection<?> dataset) {
+        return fill(values, dataset.iterator());
+    }
+
+    /**
+     * 填充模板：数据按需拉取
+     *
+     * @param values
+     * @param rows   如 RowSources.paged(...)
+     * @return
+     */
+    public Workbook fill(Object values, Iterator<?> rows) {
+        Workbook workbook;
+        Workbook anchorWorkbook;
+        try {
+            if (xls) {
+                workbook = new HSSFWorkbook(new ByteArrayInputStream(content));
+                anchorWorkbook = workbook;
+            } else {
+                XSSFWorkbook template = new XSSFWorkbook(new ByteArrayInputStream(content));
+                // 模板中已有的行在 XSSF 中填写，数据行之后的行流式写出
+                workbook = new DictionarySXSSFWorkbook(template, ExcelExportUtil.DEFAULT_ROW_ACCESS_WINDOW);
+                anchorWorkbook = template;
+            }
+        } catch (IOException e) {
+            logger.error("加载模板失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+        WorkbookContext context = WorkbookContext.of(workbook);
+        try {
+            for (Anchor anchor : anchors) {
+                Cell cell = anchorWorkbook.getSheetAt(anchor.sheetIndex).getRow(anchor.rowIndex).getCell(anchor.colIndex);
+                anchor.write(cell, values, context);
+            }
+            if (sheetIndex >= 0) {
+                Sheet sheet = workbook.getSheetAt(sheetIndex);
+                int line = createTemplateBody(rowIndex, rows, sheet, workbook, context);
+                // 重复行之后的行下移到数据之后
+                int offset = line - 1 - rowIndex;
+                for (TrailerRow trailerRow : trailer) {
+                    trailerRow.write(sheet.createRow(rowIndex + offset + trailerRow.offset), values, context);
+                }
+                for (CellRangeAddress region : trailerMerges) {
+                    sheet.addMergedRegionUnsafe(new CellRangeAddress(region.getFirstRow() + rowIndex + offset, region.getLastRow() + rowIndex + offset,
+                            region.getFirstColumn(), region.getLastColumn()));
+                }
+            }
+        } catch (Exception e) {
+            // 填充失败时关闭workbook，删除流式导出的临时文件
+            context.getMetrics().markFailed();
+            ExcelExportUtil.closeWorkbook(workbook);
+            logger.error("导出文件数据失败", e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+        return workbook;
+    }
+
+    /**
+     * 按重复行写数据：样式取自模板，日期列的模板样式不是日期格式时按转换器的格式补上
+     *
+     * @return 下一行
+     */
+    private int createTemplateBody(int line, Iterator<?> rows, Sheet sheet, Workbook workbook, WorkbookContext context) {
+        long startTime = System.nanoTime();
+        int firstLine = line;
+        int columns = fieldNames.length;
+        CellStyle[] styles = new CellStyle[columns];
+        for (int i = 0; i < columns; i++) {
+            styles[i] = styleIndexes[i] < 0 ? null : workbook.getCellStyleAt(styleIndexes[i]);
+        }
+        String[] names = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            names[i] = fieldNames[i] == null ? "" : fieldNames[i];
+        }
+        // 常量列不写入字典
+        StringDictionary.Column[] dictionaries = context.getStringDictionary().columns(names, workbook);
+        Class<?> rowClass = null;
+        PropertyAccessor[] accessors = null;
+        CellConverter[] converters = null;
+        CellStyle[] dateStyles = null;
+        long fetchNanos = 0;
+        long fetchStart = startTime;
+        while (rows.hasNext()) {
+            Object rowData = rows.next();
+            fetchNanos += System.nanoTime() - fetchStart;
+            if (rowData.getClass() != rowClass) {
+                rowClass = rowData.getClass();
+                accessors = new PropertyAccessor[columns];
+                converters = new CellConverter[columns];
+                dateStyles = new CellStyle[columns];
+                for (int i = 0; i < columns; i++) {
+                    if (fieldNames[i] != null) {
+                        accessors[i] = PropertyAccessor.of(rowClass, fieldNames[i]);
+                        converters[i] = context.getConverters().resolve(accessors[i]);
+                        dateStyles[i] = getDateCellStyle(styles[i], converters[i], context);
+                    }
+                }
+            }
+            Row row = sheet.createRow(line++);
+            row.setHeight(rowHeight);
+            for (int i = 0; i < columns; i++) {
+                if (styles[i] == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                cell.setCellStyle(styles[i]);
+                if (fieldNames[i] == null) {
+                    if (constants[i] != null) {
+                        cell.setCellValue(constants[i]);
+                    }
+                } else if (accessors[i].isPresent()) {
+                    Object cellValue = ExcelExportUtil.convertValue(converters[i], ExcelExportUtil.getValue(accessors[i], rowData));
+                    ExcelExportUtil.setConvertedCellValue(cell, converters[i], cellValue, dateStyles[i], dictionaries == null ? null : dictionaries[i]);
+                }
+            }
+            fetchStart = System.nanoTime();
+        }
+        fetchNanos += System.nanoTime() - fetchStart;
+        ExcelExportUtil.recordBody(context, startTime, fetchNanos, line - firstLine, columns);
+        return line;
+    }
+
+    private static CellStyle getDateCellStyle(CellStyle style, CellConverter converter, WorkbookContext context) {
+        if (converter.getPattern() == null) {
+            return style;
+        }
+        if (style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())) {
+            return style;
+        }
+        return context.getStyles().getDateCellStyle(style, converter.getPattern());
+    }
+
+    private static Object getValue(Object values, String key) {
+        if (values == null) {
+            return null;
+        }
+        if (values instanceof Map) {
+            return ((Map<?, ?>) values).get(key);
+        }
+        PropertyAccessor accessor = PropertyAccessor.of(values.getClass(), key);
+        return accessor.isPresent() ? ExcelExportUtil.getValue(accessor, values) : null;
+    }
+
+    /**
+     * 写入含 ${} 占位符的文本：整格为一个占位符时按值的类型写入，否则替换为文本
+     */
+    private static void writeText(Cell cell, String text, Object values, WorkbookContext context) {
+        Matcher matcher = VALUE_MARKER.matcher(text);
+        if (matcher.matches()) {
+            String key = matcher.group(1).trim();
+            Object value = getValue(values, key);
+            if (value == null) {
+                cell.setCellValue("");
+                return;
+            }
+            CellStyle style = cell.getCellStyle();
+            CellConverter converter = context.getConverters().resolve(key, value.getClass());
+            CellStyle dateStyle = getDateCellStyle(style, converter, context);
+            ExcelExportUtil.setConvertedCellValue(cell, converter, ExcelExportUtil.convertValue(converter, value), dateStyle, null);
+            return;
+        }
+        StringBuffer sb = new StringBuffer();
+        matcher.reset();
+        while (matcher.find()) {
+            Object value = getValue(values, matcher.group(1).trim());
+            String replacement;
+            if (value == null) {
+                replacement = "";
+            } else if (value instanceof Date || value instanceof Calendar || value instanceof java.time.temporal.TemporalAccessor) {
+                replacement = context.getDateFormatter().format(value);
+            } else {
+                replacement = value.toString();
+            }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(sb);
+        cell.setCellValue(sb.toString());
+    }
+
+    /**
+     * 单值占位符的位置
+     */
+    private static final class Anchor {
+        private final int sheetIndex;
+        private final int rowIndex;
+        private final int colIndex;
+        private final String text;
+
+        private Anchor(int sheetIndex, int rowIndex, int colIndex, String text) {
+            this.sheetIndex = sheetIndex;
+            this.rowIndex = rowIndex;
+            this.colIndex = colIndex;
+            this.text = text;
+        }
+
+        static Anchor of(int sheetIndex, int rowIndex, Cell cell) {
+            if (cell.getCellType() != CellType.STRING || !VALUE_MARKER.matcher(cell.getStringCellValue()).find()) {
+                return null;
+            }
+            return new Anchor(sheetIndex, rowIndex, cell.getColumnIndex(), cell.getStringCellValue());
+        }
+
+        void write(Cell cell, Object values, WorkbookContext context) {
+            writeText(cell, text, values, context);
+        }
+    }
+
+    /**
+     * 重复行之后的一行
+     */
+    private static final class TrailerRow {
+        private final int offset;           // 相对于重复行
+        private final short height;
+        private final List<TrailerCell> cells;
+
+        private TrailerRow(int offset, short height, List<TrailerCell> cells) {
+            this.offset = offset;
+            this.height = height;
+            this.cells = cells;
+        }
+
+        static TrailerRow of(int offset, Row row) {
+            List<TrailerCell> cells = new ArrayList<>();
+            for (Cell cell : row) {
+                cells.add(TrailerCell.of(cell));
+            }
+            return new TrailerRow(offset, row.getHeight(), cells);
+        }
+
+        void write(Row row, Object values, WorkbookContext context) {
+            row.setHeight(height);
+            Workbook workbook = row.getSheet().getWorkbook();
+            for (TrailerCell trailerCell : cells) {
+                Cell cell = row.createCell(trailerCell.col);
+                cell.setCellStyle(workbook.getCellStyleAt(trailerCell.styleIndex));
+                trailerCell.write(cell, values, context);
+            }
+        }
+    }
+
+    private static final class TrailerCell {
+        private final int col;
+        private final int styleIndex;
+        private final CellType type;
+        private final Object value;
+
+        private TrailerCell(int col, int styleIndex, CellType type, Object value) {
+            this.col = col;
+            this.styleIndex = styleIndex;
+            this.type = type;
+            this.value = value;
+        }
+
+        static TrailerCell of(Cell cell) {
+            CellType type = cell.getCellType();
+            Object value;
+            switch (type) {
+                case STRING:
+                    value = cell.getStringCellValue();
+                    break;
+                case NUMERIC:
+                    value = cell.getNumericCellValue();
+                    break;
+                case BOOLEAN:
+                    value = cell.getBooleanCellValue();
+                    break;
+                case FORMULA:
+                    value = cell.getCellFormula();
+                    break;
+                default:
+                    value = null;
+            }
+            return new TrailerCell(cell.getColumnIndex(), cell.getCellStyle().getIndex() & 0xffff, type, value);
+        }
+
+        void write(Cell cell, Object values, WorkbookContext context) {
+            switch (type) {
+                case STRING:
+                    writeText(cell, (String) value, values, context);
+                    break;
+                case NUMERIC:
+                    cell.setCellValue((Double) value);
+                    break;
+                case BOOLEAN:
+                    cell.setCellValue((Boolean) value);
+                    break;
+                case FORMULA:
+                    cell.setCellFormula((String) value);
+                    break;
+                default:
+            }
+        }
+    }
+}
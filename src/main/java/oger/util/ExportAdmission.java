@@ -0,0 +1,69 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.concurrent.Executor;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出准入的挂钩
+ * 创建表格时数据集和表头已确定，按 行数 × 列数(另加合并区域数) 补足当前导出的内存预留；
+ * 当前导出指导出请求、异步导出、缓存导出等已预留内存的导出，不在其中时不预留
+ * 当前导出绑定在请求或线程上，在线程池中创建表格(createSheets 并行填充sheet 等)时用 propagate 把当前导出带到执行任务的线程
+ * 默认不做任何事，启用准入控制时在启动时替换(ExportAdmissionService)
+ */
+public final class ExportAdmission {
+
+    /**
+     * 补足当前导出的预留，预算不足时抛出 ExportRejectedException
+     */
+    @FunctionalInterface
+    public interface Reserver {
+        void reserve(Workbook workbook, long rows, int columns, long merges);
+
+        /**
+         * 捕获当前导出，经返回的线程池执行的任务在执行线程中以该导出为当前导出
+         */
+        default Executor propagate(Executor executor) {
+            return executor;
+        }
+    }
+
+    private static volatile Reserver reserver = (workbook, rows, columns, merges) -> {
+    };
+
+    private ExportAdmission() {
+    }
+
+    /**
+     * 设置补足预留的方式
+     *
+     * @param reserver
+     */
+    public static void configure(Reserver reserver) {
+        ExportAdmission.reserver = reserver;
+    }
+
+    /**
+     * 按表格的行数、列数补足当前导出的预留
+     *
+     * @param workbook
+     * @param rows     数据行数
+     * @param columns  列数
+     * @param merges   合并区域数
+     */
+    static void reserve(Workbook workbook, long rows, int columns, long merges) {
+        reserver.reserve(workbook, rows, columns, merges);
+    }
+
+    /**
+     * 在当前线程捕获当前导出，经返回的线程池执行的任务以该导出为当前导出，在其中创建的表格并入同一个预留
+     *
+     * @param executor
+     * @return
+     */
+    static Executor propagate(Executor executor) {
+        return reserver.propagate(executor);
+    }
+}
@@ -0,0 +1,112 @@
+package oger.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出使用的有界线程池
+ * 线程数和排队数都有上限，不会随请求数无限增加线程：
+ * 边生成边输出的线程池超出时拒绝并抛出 ExportRejectedException(503)；
+ * 并行填充sheet、并行压缩的线程池超出时由提交任务的线程自己执行，不拒绝；这些任务会读写临时文件，不放在 ForkJoin 公共线程池中
+ * 默认值可在启动时按配置替换(configureStream、configureParallel)，替换后旧线程池在已提交的任务完成后关闭
+ */
+public final class ExportExecutors {
+
+    public static final int DEFAULT_STREAM_POOL_SIZE = 4;
+    public static final int DEFAULT_STREAM_QUEUE_CAPACITY = 16;
+    public static final int DEFAULT_PARALLEL_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_PARALLEL_QUEUE_CAPACITY = 64;
+
+    private static volatile ThreadPoolExecutor streamExecutor = newExecutor("excel-stream", DEFAULT_STREAM_POOL_SIZE, DEFAULT_STREAM_QUEUE_CAPACITY);
+    private static volatile ThreadPoolExecutor parallelExecutor = newParallelExecutor(DEFAULT_PARALLEL_POOL_SIZE, DEFAULT_PARALLEL_QUEUE_CAPACITY);
+    // 工作线程所属的线程池，用于识别在线程池中等待同一线程池的任务
+    private static final ThreadLocal<Executor> CURRENT_POOL = new ThreadLocal<>();
+
+    private ExportExecutors() {
+    }
+
+    /**
+     * 设置边生成边输出(streamExcel)的线程池大小
+     *
+     * @param poolSize      同时生成的导出数
+     * @param queueCapacity 排队等待的导出数，超出后拒绝
+     */
+    public static synchronized void configureStream(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor old = streamExecutor;
+        streamExecutor = newExecutor("excel-stream", poolSize, queueCapacity);
+        old.shutdown();
+    }
+
+    /**
+     * 设置并行填充sheet、并行压缩的线程池大小
+     *
+     * @param poolSize      线程数，0 表示按CPU核数
+     * @param queueCapacity 排队的任务数，超出后由提交任务的线程执行
+     */
+    public static synchronized void configureParallel(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor old = parallelExecutor;
+        parallelExecutor = newParallelExecutor(poolSize > 0 ? poolSize : DEFAULT_PARALLEL_POOL_SIZE, queueCapacity);
+        old.shutdown();
+    }
+
+    /**
+     * 并行填充sheet(createSheets)、并行压缩(ParallelPackageWriter)默认使用的线程池
+     *
+     * @return
+     */
+    public static Executor parallel() {
+        return parallelExecutor;
+    }
+
+    /**
+     * 提交边生成边输出的导出线程
+     *
+     * @param task
+     * @throws ExportRejectedException 线程和队列已满
+     */
+    static void executeStream(Runnable task) {
+        try {
+            streamExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            throw new ExportRejectedException("导出任务过多，请稍后重试");
+        }
+    }
+
+    /**
+     * 当前线程是否为该线程池的工作线程：在其中提交任务到同一线程池并等待结果，线程都在等待时任务无法执行
+     *
+     * @param executor
+     * @return
+     */
+    static boolean isPoolThread(Executor executor) {
+        return executor != null && CURRENT_POOL.get() == executor;
+    }
+
+    private static ThreadPoolExecutor newParallelExecutor(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor executor = newExecutor("excel-parallel", poolSize, queueCapacity);
+        // 与 CallerRunsPolicy 不同，线程池已关闭(configureParallel 替换)时也在当前线程执行，不丢弃任务
+        executor.setRejectedExecutionHandler((task, pool) -> task.run());
+        return executor;
+    }
+
+    private static ThreadPoolExecutor newExecutor(String name, int poolSize, int queueCapacity) {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor[] pool = new ThreadPoolExecutor[1];
+        // 工作线程在提交第一个任务时才创建，此时线程池已赋值
+        pool[0] = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread thread = new Thread(() -> {
+                CURRENT_POOL.set(pool[0]);
+                r.run();
+            }, name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return pool[0];
+    }
+}
@@ -0,0 +1,180 @@
+package oger.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出指标
+ * 每个 workbook 在导出过程中按阶段(表头、取数、表体、合并、序列化)累计耗时和行数、单元格数、字节数，
+ * 关闭 workbook 时按导出名称一次性发布到 Micrometer 全局注册表(Spring Boot Actuator 自动加入)，单元格级别不产生指标开销；
+ * 另有进行中的导出数及其估算堆内存两个 gauge
+ * 标签：export(导出名称)、profile(ExportProfile 配置名)
+ * 指标：excel.export(总耗时，outcome=success/failure)、excel.export.phase(各阶段耗时)、
+ * excel.export.rows、excel.export.cells、excel.export.bytes、excel.export.active、excel.export.active.heap
+ */
+public final class ExportMetrics {
+
+    public static final String DEFAULT_EXPORT_NAME = "default";
+
+    // 每个单元格的粗略堆占用：HSSF 为记录对象，XSSF 为 XMLBeans 对象，SXSSF 只计内存窗口中的行
+    private static final long HSSF_CELL_BYTES = 100;
+    private static final long XSSF_CELL_BYTES = 600;
+    private static final long SXSSF_CELL_BYTES = 120;
+
+    private static final MeterRegistry REGISTRY = Metrics.globalRegistry;
+
+    static {
+        Map<Workbook, WorkbookContext> contexts = WorkbookContext.contexts();
+        Gauge.builder("excel.export.active", contexts, Map::size)
+                .description("进行中的导出数")
+                .register(REGISTRY);
+        Gauge.builder("excel.export.active.heap", contexts, ExportMetrics::estimateHeap)
+                .description("进行中的导出估算占用的堆内存")
+                .baseUnit("bytes")
+                .register(REGISTRY);
+    }
+
+    /**
+     * 导出阶段
+     */
+    public enum Phase {
+        HEAD, FETCH, BODY, MERGE, SERIALIZE;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    private final long startTime = System.nanoTime();
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder cells = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final AtomicInteger maxColumns = new AtomicInteger();
+    private volatile boolean failed;
+
+    ExportMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 累计阶段耗时
+     *
+     * @param phase
+     * @param nanos
+     */
+    public void addTime(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * 累计写入的行和单元格
+     *
+     * @param rows
+     * @param columns 每行列数
+     */
+    public void addRows(long rows, int columns) {
+        this.rows.add(rows);
+        this.cells.add(rows * columns);
+        maxColumns.accumulateAndGet(columns, Math::max);
+    }
+
+    /**
+     * 标记导出失败
+     */
+    public void markFailed() {
+        failed = true;
+    }
+
+    /**
+     * 包装序列化的输出流，统计写出的字节数
+     *
+     * @param out
+     * @return
+     */
+    OutputStream countBytes(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytes.increment();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytes.add(len);
+            }
+        };
+    }
+
+    /**
+     * 按导出名称、导出配置发布本次导出的指标
+     *
+     * @param exportName
+     * @param profileName
+     */
+    void publish(String exportName, String profileName) {
+        Tags tags = Tags.of("export", exportName == null ? DEFAULT_EXPORT_NAME : exportName, "profile", profileName);
+        REGISTRY.timer("excel.export", tags.and("outcome", failed ? "failure" : "success"))
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos[phase.ordinal()].sum();
+            if (nanos > 0) {
+                REGISTRY.timer("excel.export.phase", tags.and("phase", phase.tag)).record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        REGISTRY.counter("excel.export.rows", tags).increment(rows.sum());
+        REGISTRY.counter("excel.export.cells", tags).increment(cells.sum());
+        REGISTRY.counter("excel.export.bytes", tags).increment(bytes.sum());
+    }
+
+    /**
+     * 估算进行中的导出占用的堆内存
+     */
+    private static double estimateHeap(Map<Workbook, WorkbookContext> contexts) {
+        long total = 0;
+        synchronized (contexts) {
+            for (Map.Entry<Workbook, WorkbookContext> entry : contexts.entrySet()) {
+                ExportMetrics metrics = entry.getValue().getMetrics();
+                total += estimateHeap(entry.getKey(), metrics.cells.sum(), metrics.maxColumns.get());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 按单元格数粗略估算 workbook 占用的堆内存：SXSSF 只计内存窗口中的行
+     *
+     * @param workbook
+     * @param cells    单元格数
+     * @param columns  最大列数
+     * @return 字节数
+     */
+    public static long estimateHeap(Workbook workbook, long cells, int columns) {
+        if (workbook instanceof HSSFWorkbook) {
+            return cells * HSSF_CELL_BYTES;
+        }
+        if (workbook instanceof SXSSFWorkbook) {
+            long window = (long) ((SXSSFWorkbook) workbook).getRandomAccessWindowSize() * columns
+                    * Math.max(1, workbook.getNumberOfSheets());
+            return Math.min(cells, window) * SXSSF_CELL_BYTES;
+        }
+        return cells * XSSF_CELL_BYTES;
+    }
+}
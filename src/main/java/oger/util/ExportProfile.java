@@ -0,0 +1,153 @@
+package oger.util;
+
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: xlsx 导出配置：输出 zip 的压缩级别、流式临时文件是否压缩、并行压缩sheet的线程池
+ * 生成 xlsx 的 CPU 大部分花在 deflate 上：内网下载带宽充足，用快速压缩或不压缩省 CPU；外网用户用最高压缩省流量；
+ * 配置名作为导出指标的 profile 标签，可按 excel.export.phase(serialize) 耗时和 excel.export.bytes 对比后选择
+ * 不可变，with 方法返回新实例；只对流式 xlsx(createStreamingWorkbook)生效，xls 没有压缩
+ */
+public final class ExportProfile {
+
+    /**
+     * 压缩级别
+     */
+    public enum Compression {
+        /**
+         * 不压缩：仍为 deflate 格式，只存储原始数据
+         */
+        STORE(Deflater.NO_COMPRESSION),
+        /**
+         * 最快压缩
+         */
+        FAST(Deflater.BEST_SPEED),
+        /**
+         * zlib 默认级别(6)，与 POI 默认一致
+         */
+        DEFAULT(Deflater.DEFAULT_COMPRESSION),
+        /**
+         * 最高压缩
+         */
+        BEST(Deflater.BEST_COMPRESSION);
+
+        private final int level;
+
+        Compression(int level) {
+            this.level = level;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+    }
+
+    // 并行压缩默认使用导出的并行线程池，每次执行时取当前的线程池(可被 ExportExecutors.configureParallel 替换)
+    private static final Executor PARALLEL = task -> ExportExecutors.parallel().execute(task);
+
+    /**
+     * 默认：与 POI 默认行为一致
+     */
+    public static final ExportProfile DEFAULT = new ExportProfile("default", Compression.DEFAULT, false, PARALLEL);
+
+    /**
+     * 内网：带宽充足，用最快压缩减少 CPU 占用
+     */
+    public static final ExportProfile LAN = new ExportProfile("lan", Compression.FAST, false, PARALLEL);
+
+    /**
+     * 外网：用最高压缩减少传输字节数
+     */
+    public static final ExportProfile WAN = new ExportProfile("wan", Compression.BEST, false, PARALLEL);
+
+    /**
+     * 大文件：临时文件也压缩，减少磁盘占用，代价是刷盘和输出时多一次压缩/解压
+     */
+    public static final ExportProfile LARGE = new ExportProfile("large", Compression.DEFAULT, true, PARALLEL);
+
+    private final String name;
+    private final Compression compression;
+    private final boolean compressTempFiles;
+    private final Executor packageExecutor;
+
+    private ExportProfile(String name, Compression compression, boolean compressTempFiles, Executor packageExecutor) {
+        this.name = name;
+        this.compression = compression;
+        this.compressTempFiles = compressTempFiles;
+        this.packageExecutor = packageExecutor;
+    }
+
+    /**
+     * 按名称获取预设配置
+     *
+     * @param name default、lan、wan、large，不区分大小写
+     * @return 名称不存在时返回 DEFAULT
+     */
+    public static ExportProfile named(String name) {
+        for (ExportProfile profile : new ExportProfile[]{LAN, WAN, LARGE}) {
+            if (profile.name.equalsIgnoreCase(name)) {
+                return profile;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * 配置名，作为导出指标的 profile 标签；应取有限的几个值
+     *
+     * @param name
+     * @return
+     */
+    public ExportProfile withName(String name) {
+        return new ExportProfile(name, compression, compressTempFiles, packageExecutor);
+    }
+
+    /**
+     * 输出 zip 的压缩级别
+     *
+     * @param compression
+     * @return
+     */
+    public ExportProfile withCompression(Compression compression) {
+        return new ExportProfile(name, compression, compressTempFiles, packageExecutor);
+    }
+
+    /**
+     * 流式导出的临时文件是否 gzip 压缩，只对之后创建的sheet生效
+     *
+     * @param compressTempFiles
+     * @return
+     */
+    public ExportProfile withCompressTempFiles(boolean compressTempFiles) {
+        return new ExportProfile(name, compression, compressTempFiles, packageExecutor);
+    }
+
+    /**
+     * 多个sheet时并行压缩各sheet的线程池，默认 ExportExecutors.parallel()
+     *
+     * @param packageExecutor 为 null 时按 POI 默认方式逐个压缩
+     * @return
+     */
+    public ExportProfile withPackageExecutor(Executor packageExecutor) {
+        return new ExportProfile(name, compression, compressTempFiles, packageExecutor);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public boolean isCompressTempFiles() {
+        return compressTempFiles;
+    }
+
+    public Executor getPackageExecutor() {
+        return packageExecutor;
+    }
+}
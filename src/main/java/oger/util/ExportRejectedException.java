@@ -0,0 +1,37 @@
+package oger.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 导出资源不足，拒绝本次导出，客户端应稍后重试
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ExportRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_RETRY_AFTER_SECONDS = 30;
+
+    private final int retryAfterSeconds;
+
+    public ExportRejectedException(String message) {
+        this(message, DEFAULT_RETRY_AFTER_SECONDS);
+    }
+
+    public ExportRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * 建议客户端等待的秒数，作为响应头 Retry-After
+     *
+     * @return
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
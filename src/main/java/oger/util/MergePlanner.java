@@ -0,0 +1,168 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 合并单元格规划
+ * 按表格布局(每个单元格的键，相同的键上下相邻时纵向合并)一次自底向上计算每个单元格向下相同的行数，之后查询均为 O(1)；
+ * 合并区域在最后一次性校验重叠并批量加入sheet(addMergedRegions)，避免 addMergedRegion 每次与全部已有区域比较；
+ * 每个sheet已有的合并区域按结束行索引并随 WorkbookContext 保存，之后每批只读取新增的区域、只与行范围相交的区域比较，
+ * 一个sheet中叠放多个表时不再每个表都扫描全部已有区域
+ */
+public final class MergePlanner {
+
+    private final String[][] cells;
+    private final int[][] down;
+
+    /**
+     * @param cells 表格布局，cells[行][列] 为单元格的键，横向合并的单元格键相同
+     */
+    public MergePlanner(String[][] cells) {
+        this.cells = cells;
+        this.down = new int[cells.length][];
+        for (int i = cells.length - 1; i >= 0; i--) {
+            down[i] = new int[cells[i].length];
+            for (int j = 0; j < cells[i].length; j++) {
+                boolean same = i < cells.length - 1 && j < cells[i + 1].length && Objects.equals(cells[i][j], cells[i + 1][j]);
+                down[i][j] = same ? down[i + 1][j] + 1 : 1;
+            }
+        }
+    }
+
+    /**
+     * 单元格与上一行相同，已包含在上方的合并区域中
+     *
+     * @param row 布局中的行
+     * @param col
+     * @return
+     */
+    public boolean isCovered(int row, int col) {
+        return row > 0 && col < cells[row - 1].length && Objects.equals(cells[row - 1][col], cells[row][col]);
+    }
+
+    /**
+     * 从 (row, col) 开始向下键相同的行数(含本行)
+     *
+     * @param row 布局中的行
+     * @param col
+     * @return
+     */
+    public int getRowSpan(int row, int col) {
+        return down[row][col];
+    }
+
+    /**
+     * 批量加入合并区域：与sheet中已有区域及彼此之间的重叠只校验一次
+     *
+     * @param sheet
+     * @param regions
+     */
+    public static void addMergedRegions(Sheet sheet, Collection<CellRangeAddress> regions) {
+        if (regions.isEmpty()) {
+            return;
+        }
+        int firstRow = Integer.MAX_VALUE, lastRow = -1, firstCol = Integer.MAX_VALUE, lastCol = -1;
+        for (CellRangeAddress region : regions) {
+            if (region.getNumberOfCells() < 2) {
+                throw new IllegalArgumentException("合并区域至少包含两个单元格：" + region.formatAsString());
+            }
+            firstRow = Math.min(firstRow, region.getFirstRow());
+            lastRow = Math.max(lastRow, region.getLastRow());
+            firstCol = Math.min(firstCol, region.getFirstColumn());
+            lastCol = Math.max(lastCol, region.getLastColumn());
+        }
+        int width = lastCol - firstCol + 1;
+        boolean[] occupied = new boolean[Math.multiplyExact(lastRow - firstRow + 1, width)];
+        CellRangeAddress bounds = new CellRangeAddress(firstRow, lastRow, firstCol, lastCol);
+        // 已有区域中与本批区域范围相交的部分先占位
+        SheetIndex index = WorkbookContext.of(sheet.getWorkbook()).getMergeIndex(sheet);
+        index.sync(sheet);
+        for (CellRangeAddress existing : index.intersecting(firstRow, lastRow)) {
+            if (existing.intersects(bounds)) {
+                mark(occupied, existing, bounds, width, false);
+            }
+        }
+        for (CellRangeAddress region : regions) {
+            mark(occupied, region, bounds, width, true);
+        }
+        for (CellRangeAddress region : regions) {
+            sheet.addMergedRegionUnsafe(region);
+        }
+        index.addAll(regions);
+    }
+
+    private static void mark(boolean[] occupied, CellRangeAddress region, CellRangeAddress bounds, int width, boolean check) {
+        int fromRow = Math.max(region.getFirstRow(), bounds.getFirstRow());
+        int toRow = Math.min(region.getLastRow(), bounds.getLastRow());
+        int fromCol = Math.max(region.getFirstColumn(), bounds.getFirstColumn());
+        int toCol = Math.min(region.getLastColumn(), bounds.getLastColumn());
+        for (int r = fromRow; r <= toRow; r++) {
+            int offset = (r - bounds.getFirstRow()) * width - bounds.getFirstColumn();
+            for (int c = fromCol; c <= toCol; c++) {
+                if (check && occupied[offset + c]) {
+                    throw new IllegalStateException("合并区域 " + region.formatAsString() + " 与已有合并区域重叠");
+                }
+                occupied[offset + c] = true;
+            }
+        }
+    }
+
+    /**
+     * 一个sheet已有的合并区域，按结束行索引；只在填充该sheet的线程中使用
+     */
+    static final class SheetIndex {
+
+        private final TreeMap<Integer, List<CellRangeAddress>> byLastRow = new TreeMap<>();
+        private int count;   // 已索引的sheet合并区域数
+
+        /**
+         * 索引其他方式(addMergedRegion)新加入的区域：区域按加入顺序追加，只读取新增的部分；区域被删除过时重建
+         */
+        void sync(Sheet sheet) {
+            int total = sheet.getNumMergedRegions();
+            if (total < count) {
+                byLastRow.clear();
+                count = 0;
+            }
+            for (int i = count; i < total; i++) {
+                add(sheet.getMergedRegion(i));
+            }
+            count = total;
+        }
+
+        void addAll(Collection<CellRangeAddress> regions) {
+            for (CellRangeAddress region : regions) {
+                add(region);
+            }
+            count += regions.size();
+        }
+
+        private void add(CellRangeAddress region) {
+            byLastRow.computeIfAbsent(region.getLastRow(), k -> new ArrayList<>()).add(region);
+        }
+
+        /**
+         * 行范围与 [firstRow, lastRow] 相交的区域
+         */
+        List<CellRangeAddress> intersecting(int firstRow, int lastRow) {
+            List<CellRangeAddress> result = new ArrayList<>();
+            for (List<CellRangeAddress> list : byLastRow.tailMap(firstRow, true).values()) {
+                for (CellRangeAddress region : list) {
+                    if (region.getFirstRow() <= lastRow) {
+                        result.add(region);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package oger.util;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 并行压缩的 xlsx 打包
+ * 每个 sheet 的 XML 和共享字符串表是互不依赖的 zip 条目：在线程池中分别拼接 sheet 数据并 deflate 到临时文件，
+ * 再按模板中的条目顺序把压缩好的数据原样写入 zip(addRawArchiveEntry)，中央目录仍由 ZipArchiveOutputStream 按顺序生成；
+ * 其余条目很小，在当前线程按普通方式压缩
+ */
+final class ParallelPackageWriter {
+
+    private static final String SHARED_STRINGS_ENTRY = "xl/sharedStrings.xml";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ParallelPackageWriter() {
+    }
+
+    /**
+     * 把模板中的条目写入 zip，sheet 条目注入 SXSSF 刷盘的行数据
+     *
+     * @param workbook
+     * @param source   SXSSF 保存的模板
+     * @param zos
+     * @param level    压缩级别
+     * @param executor 压缩线程池
+     */
+    static void write(SXSSFWorkbook workbook, ZipEntrySource source, ZipArchiveOutputStream zos, int level, Executor executor) throws IOException {
+        Map<String, Integer> sheetIndexes = new HashMap<>();
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            XSSFSheet sheet = workbook.getXSSFWorkbook().getSheetAt(i);
+            sheetIndexes.put(sheet.getPackagePart().getPartName().getName().substring(1), i);
+        }
+        List<? extends ZipArchiveEntry> entries = Collections.list(source.getEntries());
+        Map<String, CompletableFuture<DeflatedPart>> parts = new HashMap<>();
+        boolean finishing = false;
+        try {
+            // 模板条目在当前线程读取，拼接和压缩交给线程池
+            for (ZipArchiveEntry entry : entries) {
+                Integer sheetIndex = sheetIndexes.get(entry.getName());
+                if (sheetIndex == null && !SHARED_STRINGS_ENTRY.equals(entry.getName())) {
+                    continue;
+                }
+                byte[] template = readEntry(source, entry);
+                int index = sheetIndex == null ? -1 : sheetIndex;
+                parts.put(entry.getName(), CompletableFuture.supplyAsync(() -> deflate(workbook, index, template, level), executor));
+            }
+            for (ZipArchiveEntry entry : entries) {
+                CompletableFuture<DeflatedPart> future = parts.get(entry.getName());
+                if (future == null) {
+                    ZipArchiveEntry out = new ZipArchiveEntry(entry.getName());
+                    out.setTime(entry.getTime());
+                    zos.putArchiveEntry(out);
+                    try (InputStream is = source.getInputStream(entry)) {
+                        disableThreshold(is);
+                        IOUtils.copy(is, zos);
+                    }
+                    zos.closeArchiveEntry();
+                    continue;
+                }
+                DeflatedPart part = join(future);
+                ZipArchiveEntry out = new ZipArchiveEntry(entry.getName());
+                out.setTime(entry.getTime());
+                out.setMethod(ZipEntry.DEFLATED);
+                out.setSize(part.size);
+                out.setCompressedSize(part.file.length());
+                out.setCrc(part.crc);
+                try (InputStream is = new BufferedInputStream(new FileInputStream(part.file), BUFFER_SIZE)) {
+                    zos.addRawArchiveEntry(out, is);
+                }
+            }
+            finishing = true;
+            zos.finish();
+        } catch (IOException | RuntimeException | Error e) {
+            if (!finishing) {
+                // 写入失败时仍结束 zip 以释放 Deflater，结束时的异常附加到原异常上，不覆盖原异常
+                try {
+                    zos.finish();
+                } catch (IOException | RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        } finally {
+            source.close();
+            for (CompletableFuture<DeflatedPart> future : parts.values()) {
+                future.thenAccept(part -> deleteFile(part.file));
+            }
+        }
+    }
+
+    private static byte[] readEntry(ZipEntrySource source, ZipArchiveEntry entry) throws IOException {
+        try (InputStream is = source.getInputStream(entry)) {
+            disableThreshold(is);
+            return IOUtils.toByteArray(is);
+        }
+    }
+
+    /**
+     * SXSSF 的数据重复度高，与 POI 相同关闭解压比例检查
+     */
+    private static void disableThreshold(InputStream is) {
+        if (is instanceof ZipArchiveThresholdInputStream) {
+            ((ZipArchiveThresholdInputStream) is).setGuardState(false);
+        }
+    }
+
+    /**
+     * 拼接条目内容并压缩为 raw deflate 数据
+     *
+     * @param sheetIndex 共享字符串表为 -1
+     */
+    private static DeflatedPart deflate(SXSSFWorkbook workbook, int sheetIndex, byte[] template, int level) {
+        File file = null;
+        Deflater deflater = new Deflater(level, true);
+        try {
+            file = TempFile.createTempFile("excel-export-part", ".deflate");
+            CRC32 crc = new CRC32();
+            CountingOutputStream counting;
+            try (OutputStream out = new DeflaterOutputStream(new FileOutputStream(file), deflater, BUFFER_SIZE)) {
+                counting = new CountingOutputStream(new CheckedOutputStream(new BufferedOutputStream(out, BUFFER_SIZE), crc));
+                if (sheetIndex < 0) {
+                    counting.write(template);
+                } else {
+                    try (InputStream data = workbook.getSheetAt(sheetIndex).getWorksheetXMLInputStream()) {
+                        injectWorksheet(template, data, counting);
+                    }
+                }
+                counting.flush();
+            }
+            return new DeflatedPart(file, crc.getValue(), counting.count);
+        } catch (IOException e) {
+            if (file != null) {
+                deleteFile(file);
+            }
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 把行数据注入模板 sheet 的 sheetData 元素，与 SXSSFWorkbook 的处理一致
+     */
+    private static void injectWorksheet(byte[] template, InputStream data, OutputStream out) throws IOException {
+        String xml = new String(template, StandardCharsets.UTF_8);
+        int start = xml.indexOf("<sheetData");
+        String head;
+        String tail;
+        if (start < 0) {
+            head = xml + "<sheetData>\n";
+            tail = "";
+        } else if (xml.startsWith("<sheetData/>", start)) {
+            head = xml.substring(0, start) + "<sheetData>\n";
+            tail = xml.substring(start + "<sheetData/>".length());
+        } else {
+            int end = xml.indexOf("</sheetData>", start);
+            head = xml.substring(0, end);
+            tail = xml.substring(end + "</sheetData>".length());
+        }
+        out.write(head.getBytes(StandardCharsets.UTF_8));
+        IOUtils.copy(data, out);
+        out.write("</sheetData>".getBytes(StandardCharsets.UTF_8));
+        out.write(tail.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static DeflatedPart join(CompletableFuture<DeflatedPart> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private static final class DeflatedPart {
+        private final File file;
+        private final long crc;
+        private final long size;
+
+        DeflatedPart(File file, long crc, long size) {
+            this.file = file;
+            this.crc = crc;
+            this.size = size;
+        }
+    }
+
+    /**
+     * 统计压缩前的字节数
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
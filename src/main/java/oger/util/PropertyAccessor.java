@@ -0,0 +1,144 @@
+package oger.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 字段取值器
+ * 按 (类, 字段名) 缓存编译好的 getter，每个字段只反射查找一次，后续每行直接调用 MethodHandle
+ * 找不到 getter 的字段只在首次解析时记录一次日志，取值时由调用方按常量处理
+ */
+public final class PropertyAccessor {
+
+    private static Logger logger = LoggerFactory.getLogger(PropertyAccessor.class);
+
+    private static final ClassValue<ConcurrentMap<String, PropertyAccessor>> CACHE = new ClassValue<ConcurrentMap<String, PropertyAccessor>>() {
+        @Override
+        protected ConcurrentMap<String, PropertyAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String fieldName;
+    private final Class<?> type;
+    private final MethodHandle getter;
+
+    private PropertyAccessor(String fieldName, Class<?> type, MethodHandle getter) {
+        this.fieldName = fieldName;
+        this.type = type;
+        this.getter = getter;
+    }
+
+    /**
+     * 获取取值器：同一 (类, 字段名) 只解析一次
+     *
+     * @param clazz
+     * @param fieldName
+     * @return
+     */
+    public static PropertyAccessor of(Class<?> clazz, String fieldName) {
+        ConcurrentMap<String, PropertyAccessor> accessors = CACHE.get(clazz);
+        PropertyAccessor accessor = accessors.get(fieldName);
+        if (accessor == null) {
+            accessor = accessors.computeIfAbsent(fieldName, name -> resolve(clazz, name));
+        }
+        return accessor;
+    }
+
+    /**
+     * 批量获取取值器：按列解析一次，供整张表复用
+     *
+     * @param clazz
+     * @param fieldNames
+     * @return
+     */
+    public static PropertyAccessor[] of(Class<?> clazz, String[] fieldNames) {
+        PropertyAccessor[] accessors = new PropertyAccessor[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            accessors[i] = of(clazz, fieldNames[i]);
+        }
+        return accessors;
+    }
+
+    private static PropertyAccessor resolve(Class<?> clazz, String fieldName) {
+        String suffix = fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+        Method method = findMethod(clazz, "get" + suffix);
+        if (method == null) {
+            method = findMethod(clazz, "is" + suffix);
+            if (method != null && method.getReturnType() != boolean.class && method.getReturnType() != Boolean.class) {
+                method = null;
+            }
+        }
+        if (method == null) {
+            logger.debug("{} 中没有字段 {} 的 getter，按常量导出", clazz.getName(), fieldName);
+            return new PropertyAccessor(fieldName, null, null);
+        }
+        try {
+            method.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+            return new PropertyAccessor(fieldName, method.getReturnType(), getter);
+        } catch (Exception e) {
+            logger.error("解析字段 {}.{} 失败", clazz.getName(), fieldName, e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导出文件失败");
+        }
+    }
+
+    private static Method findMethod(Class<?> clazz, String methodName) {
+        try {
+            Method method = clazz.getMethod(methodName);
+            return method.getReturnType() == void.class ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 是否存在对应的 getter；不存在时字段名按常量处理
+     *
+     * @return
+     */
+    public boolean isPresent() {
+        return getter != null;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * getter 的返回类型，不存在 getter 时为 null
+     *
+     * @return
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 取值
+     *
+     * @param obj
+     * @return
+     */
+    public Object get(Object obj) {
+        try {
+            return getter.invokeExact(obj);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("获取字段 " + fieldName + " 的值失败", e);
+        }
+    }
+}
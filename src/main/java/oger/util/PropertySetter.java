@@ -0,0 +1,119 @@
+package oger.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 字段赋值器
+ * 与 PropertyAccessor 对应，按 (类, 字段名) 缓存编译好的 setter，导入时每个字段只反射查找一次
+ */
+public final class PropertySetter {
+
+    private static Logger logger = LoggerFactory.getLogger(PropertySetter.class);
+
+    private static final ClassValue<ConcurrentMap<String, PropertySetter>> CACHE = new ClassValue<ConcurrentMap<String, PropertySetter>>() {
+        @Override
+        protected ConcurrentMap<String, PropertySetter> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String fieldName;
+    private final Class<?> type;
+    private final MethodHandle setter;
+
+    private PropertySetter(String fieldName, Class<?> type, MethodHandle setter) {
+        this.fieldName = fieldName;
+        this.type = type;
+        this.setter = setter;
+    }
+
+    /**
+     * 获取赋值器：同一 (类, 字段名) 只解析一次
+     *
+     * @param clazz
+     * @param fieldName
+     * @return
+     */
+    public static PropertySetter of(Class<?> clazz, String fieldName) {
+        ConcurrentMap<String, PropertySetter> setters = CACHE.get(clazz);
+        PropertySetter setter = setters.get(fieldName);
+        if (setter == null) {
+            setter = setters.computeIfAbsent(fieldName, name -> resolve(clazz, name));
+        }
+        return setter;
+    }
+
+    private static PropertySetter resolve(Class<?> clazz, String fieldName) {
+        String methodName = "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+        Method method = null;
+        for (Method candidate : clazz.getMethods()) {
+            if (candidate.getName().equals(methodName) && candidate.getParameterCount() == 1) {
+                method = candidate;
+                break;
+            }
+        }
+        if (method == null) {
+            logger.debug("{} 中没有字段 {} 的 setter，导入时忽略该列", clazz.getName(), fieldName);
+            return new PropertySetter(fieldName, null, null);
+        }
+        try {
+            method.setAccessible(true);
+            MethodHandle setter = MethodHandles.lookup().unreflect(method).asType(SETTER_TYPE);
+            return new PropertySetter(fieldName, method.getParameterTypes()[0], setter);
+        } catch (Exception e) {
+            logger.error("解析字段 {}.{} 失败", clazz.getName(), fieldName, e);
+            //  可替换成自己项目中包装的异常类
+            throw new RuntimeException("导入文件失败");
+        }
+    }
+
+    /**
+     * 是否存在对应的 setter
+     *
+     * @return
+     */
+    public boolean isPresent() {
+        return setter != null;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * setter 的参数类型，不存在 setter 时为 null
+     *
+     * @return
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 赋值
+     *
+     * @param obj
+     * @param value
+     */
+    public void set(Object obj, Object value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("设置字段 " + fieldName + " 的值失败", e);
+        }
+    }
+}
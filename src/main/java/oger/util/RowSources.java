@@ -0,0 +1,127 @@
+package oger.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 按需拉取的数据源
+ * 把分页查询包装成 Iterator，表体写完一页才会拉取下一页；配合流式workbook可直接从数据库分页导出，内存占用只与页大小有关
+ */
+public class RowSources {
+
+    /**
+     * 按 offset/limit 分页查询
+     *
+     * @param <T>
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        List<T> fetch(int offset, int limit);
+    }
+
+    /**
+     * 按上一页最后一条记录的键查询下一页(keyset 分页)
+     *
+     * @param <T>
+     * @param <K>
+     */
+    @FunctionalInterface
+    public interface KeysetPageFetcher<T, K> {
+        /**
+         * @param lastKey 上一页最后一条记录的键，第一页为 null
+         * @param limit
+         * @return
+         */
+        List<T> fetch(K lastKey, int limit);
+    }
+
+    /**
+     * offset/limit 分页数据源：返回的记录数小于 pageSize 时结束
+     *
+     * @param fetcher
+     * @param pageSize
+     * @param <T>
+     * @return
+     */
+    public static <T> Iterator<T> paged(PageFetcher<T> fetcher, int pageSize) {
+        return new PagedIterator<T>(pageSize) {
+            private int offset;
+
+            @Override
+            protected List<T> fetchNext(int limit) {
+                List<T> page = fetcher.fetch(offset, limit);
+                offset += page == null ? 0 : page.size();
+                return page;
+            }
+        };
+    }
+
+    /**
+     * keyset 分页数据源：适合大表深分页，避免 offset 越来越慢
+     *
+     * @param fetcher
+     * @param keyExtractor 取记录的分页键，如 Student::getId
+     * @param pageSize
+     * @param <T>
+     * @param <K>
+     * @return
+     */
+    public static <T, K> Iterator<T> keyset(KeysetPageFetcher<T, K> fetcher, Function<T, K> keyExtractor, int pageSize) {
+        return new PagedIterator<T>(pageSize) {
+            private K lastKey;
+
+            @Override
+            protected List<T> fetchNext(int limit) {
+                List<T> page = fetcher.fetch(lastKey, limit);
+                if (page != null && !page.isEmpty()) {
+                    lastKey = keyExtractor.apply(page.get(page.size() - 1));
+                }
+                return page;
+            }
+        };
+    }
+
+    private abstract static class PagedIterator<T> implements Iterator<T> {
+        private final int pageSize;
+        private List<T> page = Collections.emptyList();
+        private int index;
+        private boolean last;
+
+        PagedIterator(int pageSize) {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("pageSize 必须大于0");
+            }
+            this.pageSize = pageSize;
+        }
+
+        protected abstract List<T> fetchNext(int limit);
+
+        @Override
+        public boolean hasNext() {
+            if (index < page.size()) {
+                return true;
+            }
+            if (last) {
+                return false;
+            }
+            List<T> next = fetchNext(pageSize);
+            page = next == null ? Collections.emptyList() : next;
+            index = 0;
+            last = page.size() < pageSize;
+            return !page.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.get(index++);
+        }
+    }
+}
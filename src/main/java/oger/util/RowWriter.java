@@ -0,0 +1,62 @@
+package oger.util;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 按列取出一行数据
+ * 由 @ExcelColumn 注解处理器在编译时生成实现类，直接调用 getter；各数组按列顺序一一对应
+ *
+ * @param <T> 实体类
+ */
+public interface RowWriter<T> {
+
+    /**
+     * 实体类
+     *
+     * @return
+     */
+    Class<T> getType();
+
+    /**
+     * 字段名
+     *
+     * @return
+     */
+    String[] getFieldNames();
+
+    /**
+     * 表头名称
+     *
+     * @return
+     */
+    String[] getHeadNames();
+
+    /**
+     * 字段类型
+     *
+     * @return
+     */
+    Class<?>[] getFieldTypes();
+
+    /**
+     * 格式，空字符串为默认格式
+     *
+     * @return
+     */
+    String[] getFormats();
+
+    /**
+     * 列宽(字符数)，0 为自动
+     *
+     * @return
+     */
+    int[] getWidths();
+
+    /**
+     * 取出一行的值
+     *
+     * @param row
+     * @param values 长度为列数，按列顺序填充
+     */
+    void getValues(T row, Object[] values);
+}
@@ -0,0 +1,52 @@
+package oger.util;
+
+import java.util.Optional;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 获取编译时生成的 RowWriter
+ * 实体类 Xxx 的 RowWriter 为同包下的 XxxRowWriter，首次使用时加载并缓存，不扫描类路径
+ */
+public final class RowWriters {
+
+    private static final ClassValue<Optional<RowWriter<?>>> WRITERS = new ClassValue<Optional<RowWriter<?>>>() {
+        @Override
+        protected Optional<RowWriter<?>> computeValue(Class<?> type) {
+            try {
+                Class<?> writerClass = Class.forName(type.getName() + "RowWriter", true, type.getClassLoader());
+                return Optional.of((RowWriter<?>) writerClass.getDeclaredConstructor().newInstance());
+            } catch (ClassNotFoundException e) {
+                return Optional.empty();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("创建 " + type.getName() + "RowWriter 失败", e);
+            }
+        }
+    };
+
+    private RowWriters() {
+    }
+
+    /**
+     * 获取实体类的 RowWriter
+     *
+     * @param type
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowWriter<T> of(Class<T> type) {
+        return (RowWriter<T>) WRITERS.get(type).orElseThrow(() -> new IllegalArgumentException(
+                "未找到 " + type.getName() + "RowWriter，请在字段上添加 @ExcelColumn 并确认注解处理器已启用"));
+    }
+
+    /**
+     * 实体类是否有生成的 RowWriter
+     *
+     * @param type
+     * @return
+     */
+    public static boolean has(Class<?> type) {
+        return WRITERS.get(type).isPresent();
+    }
+}
@@ -0,0 +1,132 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 表体写满一个sheet后自动换到新sheet
+ * 开启后(WorkbookContext#setMaxRowsPerSheet)行数达到上限(不超过文件格式的上限)时新建sheet，名称为原名加 _2、_3 后缀，
+ * 放在原sheet之后，写入表头后继续写数据；数据只读取一次，不需要预先知道数据量；未开启时不换sheet
+ * 换过sheet的原sheet不能再写入表：返回的行号属于新sheet，继续写在原sheet会覆盖已有的行
+ * 只在填充该表的线程中使用；新建sheet时对 workbook 加锁，可用于 createSheets 并行填充
+ */
+final class SheetRollover {
+
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    private final Workbook workbook;
+    private final ToIntFunction<Sheet> headWriter;
+    private final int maxRows;
+    private final List<Sheet> sheets = new ArrayList<>(1);
+    private Sheet sheet;
+    private int line;
+
+    /**
+     * @param line       表体起始行
+     * @param sheet
+     * @param workbook
+     * @param headWriter 在新sheet中写表头，返回表体起始行；为 null 时新sheet从第一行开始写数据
+     */
+    SheetRollover(int line, Sheet sheet, Workbook workbook, ToIntFunction<Sheet> headWriter) {
+        checkWritable(sheet, workbook);
+        WorkbookContext context = WorkbookContext.of(workbook);
+        this.workbook = workbook;
+        this.headWriter = headWriter;
+        int limit = context.getMaxRowsPerSheet();
+        // 未开启时不换sheet，超出文件格式上限时由 POI 报错
+        this.maxRows = limit > 0 ? Math.min(limit, workbook.getSpreadsheetVersion().getMaxRows()) : Integer.MAX_VALUE;
+        this.sheet = sheet;
+        this.line = line;
+        sheets.add(sheet);
+    }
+
+    /**
+     * 检查 sheet 是否还能写入表：表体换过sheet后原sheet不能再写入
+     *
+     * @param sheet
+     * @param workbook
+     * @throws IllegalStateException 已换过sheet
+     */
+    static void checkWritable(Sheet sheet, Workbook workbook) {
+        WorkbookContext context = WorkbookContext.of(workbook);
+        if (context.isRolledOver(sheet)) {
+            throw new IllegalStateException("sheet " + sheet.getSheetName() + " 的表体已换到新sheet " + context.getCurrentSheet(sheet).getSheetName()
+                    + "，换sheet只能用于sheet中的最后一个表");
+        }
+    }
+
+    /**
+     * 创建下一行，当前sheet已写满时先换到新sheet
+     *
+     * @return
+     */
+    Row createRow() {
+        if (line >= maxRows) {
+            roll();
+        }
+        return sheet.createRow(line++);
+    }
+
+    private void roll() {
+        String baseName = sheets.get(0).getSheetName();
+        synchronized (workbook) {
+            String name;
+            int suffix = sheets.size();
+            do {
+                name = sheetName(baseName, ++suffix);
+            } while (workbook.getSheet(name) != null);
+            Sheet next = workbook.createSheet(name);
+            workbook.setSheetOrder(name, workbook.getSheetIndex(sheet) + 1);
+            sheet = next;
+        }
+        sheets.add(sheet);
+        WorkbookContext.of(workbook).setRolledOver(sheets.get(0), sheet);
+        line = headWriter == null ? 0 : headWriter.applyAsInt(sheet);
+        if (line >= maxRows) {
+            // 表头已占满新sheet，继续换sheet也写不下数据
+            throw new IllegalStateException("表头行数达到sheet行数上限 " + maxRows + "，无法换sheet继续写入");
+        }
+    }
+
+    private static String sheetName(String baseName, int suffix) {
+        String tail = "_" + suffix;
+        if (baseName.length() + tail.length() > MAX_SHEET_NAME_LENGTH) {
+            baseName = baseName.substring(0, MAX_SHEET_NAME_LENGTH - tail.length());
+        }
+        return baseName + tail;
+    }
+
+    /**
+     * 当前写入的sheet
+     *
+     * @return
+     */
+    Sheet getSheet() {
+        return sheet;
+    }
+
+    /**
+     * 当前sheet的下一行
+     *
+     * @return
+     */
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * 表体写入过的所有sheet，第一个为原sheet
+     *
+     * @return
+     */
+    List<Sheet> getSheets() {
+        return sheets;
+    }
+}
@@ -0,0 +1,211 @@
+package oger.util;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 有界内存管道
+ * 导出线程写、响应线程读；内存中最多缓存 memoryLimit 字节，超出的部分追加到临时文件，写入方永不因客户端读取慢而阻塞；
+ * 读取方追上临时文件后清空文件并切回内存缓存。任一方关闭后另一方收到异常，两方都关闭后删除临时文件
+ */
+public class SpillingPipe {
+
+    public static final int DEFAULT_MEMORY_LIMIT = 4 * 1024 * 1024;   // 默认内存缓存 4M
+
+    private final int memoryLimit;
+    private final Deque<byte[]> chunks = new ArrayDeque<>();
+    private int headOffset;           // 第一个内存块已读取的字节数
+    private long memoryBytes;         // 内存中未读取的字节数
+    private File spillFile;
+    private RandomAccessFile spill;
+    private boolean spilling;         // 是否正在写临时文件
+    private long spillWritten;
+    private long spillRead;
+    private boolean writeClosed;
+    private boolean readClosed;
+    private IOException failure;
+
+    private final OutputStream outputStream = new PipeOutputStream();
+    private final InputStream inputStream = new PipeInputStream();
+
+    public SpillingPipe() {
+        this(DEFAULT_MEMORY_LIMIT);
+    }
+
+    public SpillingPipe(int memoryLimit) {
+        if (memoryLimit <= 0) {
+            throw new IllegalArgumentException("memoryLimit 必须大于0");
+        }
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * 写入端，由导出线程使用
+     *
+     * @return
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * 读取端，由响应线程使用
+     *
+     * @return
+     */
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * 写入失败：读取端收到异常，不会把残缺的文件当作正常结束
+     *
+     * @param cause
+     */
+    public synchronized void fail(Throwable cause) {
+        failure = new IOException("导出文件失败", cause);
+        writeClosed = true;
+        notifyAll();
+        releaseIfClosed();
+    }
+
+    private synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (readClosed) {
+            throw new IOException("客户端已断开");
+        }
+        if (writeClosed) {
+            throw new IOException("管道已关闭");
+        }
+        if (!spilling && memoryBytes + len <= memoryLimit) {
+            byte[] chunk = new byte[len];
+            System.arraycopy(b, off, chunk, 0, len);
+            chunks.addLast(chunk);
+            memoryBytes += len;
+        } else {
+            if (spill == null) {
+                spillFile = Files.createTempFile("excel-stream", ".tmp").toFile();
+                spill = new RandomAccessFile(spillFile, "rw");
+            }
+            spilling = true;
+            spill.seek(spillWritten);
+            spill.write(b, off, len);
+            spillWritten += len;
+        }
+        notifyAll();
+    }
+
+    private synchronized int read(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            if (readClosed) {
+                throw new IOException("管道已关闭");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (!chunks.isEmpty()) {
+                byte[] chunk = chunks.peekFirst();
+                int n = Math.min(len, chunk.length - headOffset);
+                System.arraycopy(chunk, headOffset, b, off, n);
+                headOffset += n;
+                memoryBytes -= n;
+                if (headOffset == chunk.length) {
+                    chunks.pollFirst();
+                    headOffset = 0;
+                }
+                return n;
+            }
+            if (spillRead < spillWritten) {
+                spill.seek(spillRead);
+                int n = spill.read(b, off, (int) Math.min(len, spillWritten - spillRead));
+                spillRead += n;
+                if (spillRead == spillWritten) {
+                    // 已追上写入端，清空临时文件，之后的数据重新走内存
+                    spill.setLength(0);
+                    spillRead = 0;
+                    spillWritten = 0;
+                    spilling = false;
+                }
+                return n;
+            }
+            if (writeClosed) {
+                return -1;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待导出数据时被中断");
+            }
+        }
+    }
+
+    private synchronized void closeWrite() {
+        writeClosed = true;
+        notifyAll();
+        releaseIfClosed();
+    }
+
+    private synchronized void closeRead() {
+        readClosed = true;
+        chunks.clear();
+        memoryBytes = 0;
+        notifyAll();
+        releaseIfClosed();
+    }
+
+    private void releaseIfClosed() {
+        if (!(writeClosed && readClosed) || spill == null) {
+            return;
+        }
+        try {
+            spill.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        if (!spillFile.delete()) {
+            spillFile.deleteOnExit();
+        }
+        spill = null;
+    }
+
+    private class PipeOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                SpillingPipe.this.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void close() {
+            closeWrite();
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return len == 0 ? 0 : SpillingPipe.this.read(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closeRead();
+        }
+    }
+}
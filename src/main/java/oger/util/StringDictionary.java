@@ -0,0 +1,132 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: 低基数文本列的字典编码
+ * 科目、班级、状态等列只有少量不同值却重复几十万行，流式 xlsx 默认把每个单元格的文本内联写入临时文件和输出文件；
+ * 字典列的每个不同值只加入共享字符串表一次(DictionarySXSSFWorkbook)，单元格写入带下标的值，刷盘时直接写下标，不再按文本查找；
+ * 只对流式 xlsx 编码：HSSF 的 setCellValue 不论是否复用 RichTextString 都会逐个单元格在共享字符串表中查找，编码没有收益，其他 workbook 也不编码
+ * 默认只编码声明的列；setAutoDetectLimit 开启自动识别后，不同值不超过上限的文本列也按字典编码，超出后该列停止编码
+ */
+public final class StringDictionary {
+
+    // 开启自动识别时建议的不同值上限
+    public static final int SUGGESTED_AUTO_DETECT_LIMIT = 256;
+
+    private final Set<String> declared = ConcurrentHashMap.newKeySet();
+    private volatile int autoDetectLimit;
+
+    StringDictionary() {
+    }
+
+    /**
+     * 声明字典列：不论不同值有多少都按字典编码
+     *
+     * @param fieldNames
+     * @return
+     */
+    public StringDictionary declare(String... fieldNames) {
+        for (String fieldName : fieldNames) {
+            declared.add(fieldName);
+        }
+        return this;
+    }
+
+    /**
+     * 开启自动识别：未声明的文本列在不同值不超过上限时按字典编码；默认不开启
+     *
+     * @param autoDetectLimit 不同值上限，如 SUGGESTED_AUTO_DETECT_LIMIT；0 表示不自动识别，只编码声明的列
+     * @return
+     */
+    public StringDictionary setAutoDetectLimit(int autoDetectLimit) {
+        this.autoDetectLimit = autoDetectLimit;
+        return this;
+    }
+
+    /**
+     * 创建表体各列的编码器
+     *
+     * @param fieldNames
+     * @param workbook
+     * @return 不支持字典编码或没有字典列时返回 null；数组中不编码的列为 null
+     */
+    Column[] columns(String[] fieldNames, Workbook workbook) {
+        if (!(workbook instanceof DictionarySXSSFWorkbook)) {
+            return null;
+        }
+        int limit = autoDetectLimit;
+        if (limit <= 0 && declared.isEmpty()) {
+            return null;
+        }
+        Column[] columns = new Column[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (declared.contains(fieldNames[i])) {
+                columns[i] = new Column((DictionarySXSSFWorkbook) workbook, Integer.MAX_VALUE);
+            } else if (limit > 0) {
+                columns[i] = new Column((DictionarySXSSFWorkbook) workbook, limit);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 一个表体列的编码器，只在填充该表的线程中使用
+     */
+    final class Column {
+
+        private final DictionarySXSSFWorkbook workbook;
+        private final int limit;
+        // 不同值及其共享字符串，超出上限后为 null
+        private Map<String, DictionarySXSSFWorkbook.SharedString> values = new HashMap<>();
+        // 已登记为字典列的sheet和列，换sheet(SheetRollover)后重新登记
+        private Sheet sheet;
+        private int columnIndex = -1;
+
+        private Column(DictionarySXSSFWorkbook workbook, int limit) {
+            this.workbook = workbook;
+            this.limit = limit;
+        }
+
+        /**
+         * 写入文本：值加入共享字符串表，不同值超出上限后该列按普通文本写入
+         *
+         * @param cell
+         * @param value
+         */
+        void setCellValue(Cell cell, String value) {
+            if (values == null) {
+                cell.setCellValue(value);
+                return;
+            }
+            DictionarySXSSFWorkbook.SharedString shared = values.get(value);
+            if (shared == null) {
+                if (values.size() >= limit) {
+                    values = null;
+                    if (sheet != null) {
+                        workbook.removeDictionaryColumn(sheet, columnIndex);
+                    }
+                    cell.setCellValue(value);
+                    return;
+                }
+                shared = workbook.addSharedString(value);
+                values.put(value, shared);
+            }
+            if (cell.getSheet() != sheet || cell.getColumnIndex() != columnIndex) {
+                sheet = cell.getSheet();
+                columnIndex = cell.getColumnIndex();
+                workbook.addDictionaryColumn(sheet, columnIndex);
+            }
+            cell.setCellValue(shared);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: workbook 的样式注册表
+ * 每种样式(含字体)在一个 workbook 中只创建一次，之后的表格直接复用，避免 HSSF 4000 个样式的上限和文件膨胀；
+ * 只缓存样式下标，返回的样式为共享实例，请勿修改
+ */
+public class StyleRegistry {
+
+    public static final CellStyleSpec SHEET_TITLE = CellStyleSpec.builder().center().bold(true).fontHeightInPoints(14).build();
+    public static final CellStyleSpec TABLE_TITLE = CellStyleSpec.builder().center().bold(true).fontHeightInPoints(12)
+            .fillColor(IndexedColors.GREY_25_PERCENT.getIndex()).build();
+    public static final CellStyleSpec TABLE_HEAD = CellStyleSpec.builder().center().wrapText(true).bold(true).build();
+    public static final CellStyleSpec TABLE_HEAD_RANGE = TABLE_HEAD.toBuilder().border(BorderStyle.THIN).build();
+    public static final CellStyleSpec TABLE_BODY = CellStyleSpec.builder().border(BorderStyle.THIN).build();
+    public static final CellStyleSpec TABLE_BODY_RANGE = TABLE_BODY.toBuilder().center().build();
+
+    private final WeakReference<Workbook> workbook;
+    private final Map<CellStyleSpec, Integer> styles = new HashMap<>();
+    private final Map<String, Integer> fonts = new HashMap<>();
+    private final Map<String, Integer> dateStyles = new HashMap<>();
+
+    StyleRegistry(Workbook workbook) {
+        this.workbook = new WeakReference<>(workbook);
+    }
+
+    /**
+     * 获取样式：属性相同的描述只创建一次
+     *
+     * @param spec
+     * @return
+     */
+    public synchronized CellStyle get(CellStyleSpec spec) {
+        Workbook wb = getWorkbook();
+        Integer index = styles.get(spec);
+        if (index != null) {
+            return wb.getCellStyleAt(index);
+        }
+        Font font = null;
+        if (spec.hasFont()) {
+            Integer fontIndex = fonts.get(spec.fontKey());
+            if (fontIndex == null) {
+                font = spec.createFont(wb);
+                fonts.put(spec.fontKey(), font.getIndexAsInt());
+            } else {
+                font = wb.getFontAt(fontIndex);
+            }
+        }
+        CellStyle style = spec.createCellStyle(wb, font);
+        styles.put(spec, style.getIndex() & 0xffff);
+        return style;
+    }
+
+    /**
+     * 获取日期单元格样式：在 baseStyle 的基础上设置日期格式，同一 (baseStyle, pattern) 只创建一次
+     *
+     * @param baseStyle 基础样式，可为 null
+     * @param pattern   java 日期格式
+     * @return
+     */
+    public synchronized CellStyle getDateCellStyle(CellStyle baseStyle, String pattern) {
+        Workbook wb = getWorkbook();
+        String key = (baseStyle == null ? -1 : baseStyle.getIndex() & 0xffff) + "|" + pattern;
+        Integer index = dateStyles.get(key);
+        if (index != null) {
+            return wb.getCellStyleAt(index);
+        }
+        CellStyle style = wb.createCellStyle();
+        if (baseStyle != null) {
+            style.cloneStyleFrom(baseStyle);
+        }
+        style.setDataFormat(wb.createDataFormat().getFormat(CellConverter.toExcelFormat(pattern)));
+        dateStyles.put(key, style.getIndex() & 0xffff);
+        return style;
+    }
+
+    private Workbook getWorkbook() {
+        Workbook wb = workbook.get();
+        if (wb == null) {
+            throw new IllegalStateException("workbook 已被回收");
+        }
+        return wb;
+    }
+}
@@ -0,0 +1,237 @@
+package oger.util;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * @Auther: Oger
+ * @Date: 2026-10-18
+ * @Description: workbook 级别的导出上下文
+ * 保存样式注册表、按列注册的转换器和日期格式，随 workbook 回收；
+ * 只缓存样式下标、弱引用 workbook，避免上下文反过来持有 workbook；
+ * 同时累计本次导出的指标，释放上下文时发布
+ */
+public class WorkbookContext {
+
+    private static final Map<Workbook, WorkbookContext> CONTEXTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final StyleRegistry styles;
+    private final CellConverters converters = new CellConverters();
+    private final StringDictionary stringDictionary = new StringDictionary();
+    private volatile DateFormatter dateFormatter = DateFormatter.cached(CellConverter.DEFAULT_DATE_PATTERN);
+    private volatile ColumnWidthStrategy columnWidthStrategy = ColumnWidthStrategy.EXACT;
+    private final ExportMetrics metrics = new ExportMetrics();
+    private volatile String exportName;
+    private volatile ExportProfile exportProfile = ExportProfile.DEFAULT;
+    private volatile int maxRowsPerSheet;
+    private final Map<Sheet, MergePlanner.SheetIndex> mergeIndexes = Collections.synchronizedMap(new WeakHashMap<>());
+    // 表体换过sheet的原sheet -> 最后写入的sheet名称；只保存名称，不持有sheet
+    private final Map<Sheet, String> rolledSheets = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private WorkbookContext(Workbook workbook) {
+        this.styles = new StyleRegistry(workbook);
+    }
+
+    /**
+     * 获取 workbook 的导出上下文，不存在时创建
+     *
+     * @param workbook
+     * @return
+     */
+    public static WorkbookContext of(Workbook workbook) {
+        return CONTEXTS.computeIfAbsent(workbook, WorkbookContext::new);
+    }
+
+    /**
+     * 导出完成后释放上下文，并发布本次导出的指标
+     *
+     * @param workbook
+     */
+    public static void release(Workbook workbook) {
+        WorkbookContext context = CONTEXTS.remove(workbook);
+        if (context != null) {
+            context.metrics.publish(context.exportName, context.exportProfile.getName());
+        }
+    }
+
+    /**
+     * 进行中的导出，供指标 gauge 使用
+     */
+    static Map<Workbook, WorkbookContext> contexts() {
+        return CONTEXTS;
+    }
+
+    /**
+     * 样式注册表
+     *
+     * @return
+     */
+    public StyleRegistry getStyles() {
+        return styles;
+    }
+
+    /**
+     * 按列注册的转换器
+     *
+     * @return
+     */
+    public CellConverters getConverters() {
+        return converters;
+    }
+
+    /**
+     * 低基数文本列的字典编码，可声明字典列或开启自动识别，只对流式 xlsx(DictionarySXSSFWorkbook)生效
+     *
+     * @return
+     */
+    public StringDictionary getStringDictionary() {
+        return stringDictionary;
+    }
+
+    /**
+     * 设置本次导出的日期格式：日期单元格的显示格式和日期转文本都使用该格式
+     *
+     * @param pattern 如 yyyy-MM-dd
+     * @return
+     */
+    public WorkbookContext setDatePattern(String pattern) {
+        converters.setDatePattern(pattern);
+        dateFormatter = DateFormatter.cached(pattern);
+        return this;
+    }
+
+    /**
+     * 本次导出的日期格式化器，带格式化结果缓存
+     *
+     * @return
+     */
+    public DateFormatter getDateFormatter() {
+        return dateFormatter;
+    }
+
+    /**
+     * 自动列宽策略，默认统计全部行
+     *
+     * @return
+     */
+    public ColumnWidthStrategy getColumnWidthStrategy() {
+        return columnWidthStrategy;
+    }
+
+    /**
+     * 设置本次导出的自动列宽策略，如大数据量导出只统计前 N 行
+     *
+     * @param columnWidthStrategy
+     * @return
+     */
+    public WorkbookContext setColumnWidthStrategy(ColumnWidthStrategy columnWidthStrategy) {
+        this.columnWidthStrategy = columnWidthStrategy;
+        return this;
+    }
+
+    /**
+     * 本次导出的指标
+     *
+     * @return
+     */
+    public ExportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * sheet已有合并区域的索引，供 MergePlanner 批量加入时校验重叠；弱引用sheet
+     */
+    MergePlanner.SheetIndex getMergeIndex(Sheet sheet) {
+        return mergeIndexes.computeIfAbsent(sheet, k -> new MergePlanner.SheetIndex());
+    }
+
+    /**
+     * 导出名称，作为指标的 export 标签
+     *
+     * @return
+     */
+    public String getExportName() {
+        return exportName;
+    }
+
+    /**
+     * 设置导出名称，未设置时为 ExportMetrics.DEFAULT_EXPORT_NAME；名称应取有限的几个值，如接口名，不要包含日期等变化的内容
+     *
+     * @param exportName
+     * @return
+     */
+    public WorkbookContext setExportName(String exportName) {
+        this.exportName = exportName;
+        return this;
+    }
+
+    /**
+     * xlsx 导出配置，默认 ExportProfile.DEFAULT
+     *
+     * @return
+     */
+    public ExportProfile getExportProfile() {
+        return exportProfile;
+    }
+
+    /**
+     * 设置本次导出的配置：压缩级别在输出时生效，临时文件压缩只对之后创建的sheet生效
+     *
+     * @param exportProfile
+     * @return
+     */
+    public WorkbookContext setExportProfile(ExportProfile exportProfile) {
+        this.exportProfile = exportProfile;
+        return this;
+    }
+
+    /**
+     * 每个sheet的最大行数，0 表示不换sheet
+     *
+     * @return
+     */
+    public int getMaxRowsPerSheet() {
+        return maxRowsPerSheet;
+    }
+
+    /**
+     * 开启换sheet：表体写满后自动换到新sheet(原名加 _2、_3 后缀)并重复表头，超过文件格式的上限(xls 65536 行，xlsx 1048576 行)时按上限
+     * 只用于sheet中的最后一个表：换sheet后表体方法返回的行号属于新sheet(见 getCurrentSheet)，原sheet不能再写入表
+     *
+     * @param maxRowsPerSheet 0(默认)表示不换sheet；Integer.MAX_VALUE 表示按文件格式的上限换sheet
+     * @return
+     */
+    public WorkbookContext setMaxRowsPerSheet(int maxRowsPerSheet) {
+        this.maxRowsPerSheet = maxRowsPerSheet;
+        return this;
+    }
+
+    /**
+     * 从 sheet 开始写入的表当前写到的sheet：表体换过sheet时为最后一个新sheet，表体方法返回的行号属于该sheet
+     *
+     * @param sheet 表开始的sheet
+     * @return 没有换过sheet时返回 sheet
+     */
+    public Sheet getCurrentSheet(Sheet sheet) {
+        String name = rolledSheets.get(sheet);
+        return name == null ? sheet : sheet.getWorkbook().getSheet(name);
+    }
+
+    /**
+     * sheet 的表体是否已换到新sheet
+     */
+    boolean isRolledOver(Sheet sheet) {
+        return rolledSheets.containsKey(sheet);
+    }
+
+    /**
+     * 记录表体从 sheet 换到了 current
+     */
+    void setRolledOver(Sheet sheet, Sheet current) {
+        rolledSheets.put(sheet, current.getSheetName());
+    }
+}